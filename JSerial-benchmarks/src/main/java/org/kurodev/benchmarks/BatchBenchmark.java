@@ -0,0 +1,63 @@
+package org.kurodev.benchmarks;
+
+import org.kurodev.serializers.ObjectSerializer;
+import org.kurodev.serializers.testinstances.IncludeEverythingObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads batches through {@link ObjectSerializer#writeAll(List, Executor)} and
+ * {@link ObjectSerializer#readAll(byte[], Class, Executor)}, either on the common pool or on the calling thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    @Param({"10000", "100000"})
+    private int size;
+    @Param({"false", "true"})
+    private boolean parallel;
+    private ObjectSerializer serializer;
+    private Executor executor;
+    private List<Object> objects;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        serializer = new ObjectSerializer();
+        executor = parallel ? ForkJoinPool.commonPool() : Runnable::run;
+        objects = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            objects.add(new IncludeEverythingObject());
+        }
+        bytes = serializer.writeAll(objects, executor);
+    }
+
+    @Benchmark
+    public byte[] writeAll() {
+        return serializer.writeAll(objects, executor);
+    }
+
+    @Benchmark
+    public List<IncludeEverythingObject> readAll() {
+        return serializer.readAll(bytes, IncludeEverythingObject.class, executor);
+    }
+}
@@ -0,0 +1,52 @@
+package org.kurodev.benchmarks;
+
+import org.kurodev.util.ByteConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteConverterBenchmark {
+    private int anInt = Integer.MAX_VALUE;
+    private long aLong = Long.MAX_VALUE;
+    private double aDouble = Double.MAX_VALUE;
+    private String string = "0000testString";
+
+    @Benchmark
+    public byte[] writeInt() {
+        return ByteConverter.write(anInt);
+    }
+
+    @Benchmark
+    public byte[] writeLong() {
+        return ByteConverter.write(aLong);
+    }
+
+    @Benchmark
+    public byte[] writeDouble() {
+        return ByteConverter.write(aDouble);
+    }
+
+    @Benchmark
+    public byte[] writeString() {
+        return ByteConverter.write(string);
+    }
+
+    @Benchmark
+    public byte[] combine() {
+        return ByteConverter.combine(ByteConverter.write(anInt), ByteConverter.write(aLong), ByteConverter.write(string));
+    }
+}
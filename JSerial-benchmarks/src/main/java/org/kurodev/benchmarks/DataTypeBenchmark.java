@@ -0,0 +1,119 @@
+package org.kurodev.benchmarks;
+
+import org.kurodev.DataType;
+import org.kurodev.serializers.FieldPlan;
+import org.kurodev.serializers.ObjectSerializer;
+import org.kurodev.serializers.testinstances.IncludeEverythingObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of classifying the fields of a class, comparing the previous linear scans ({@code scan*})
+ * with the cached lookups of {@link DataType} and the per field {@link DataType} stored in the plan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataTypeBenchmark {
+    /**
+     * The classes each constant used to hold, indexed by ordinal.
+     */
+    private static final Class<?>[][] SCANNED = new Class<?>[DataType.values().length][];
+
+    static {
+        Class<?>[] known = {Boolean.class, boolean.class, Byte.class, byte.class, Character.class, char.class,
+                Double.class, double.class, Float.class, float.class, Integer.class, int.class, Long.class, long.class,
+                Object.class, Short.class, short.class, String.class};
+        for (DataType type : DataType.values()) {
+            SCANNED[type.ordinal()] = Arrays.stream(known).filter(clazz -> DataType.identify(clazz) == type).toArray(Class[]::new);
+        }
+    }
+
+    private Class<?>[] classes;
+    private int[] ordinals;
+    private List<FieldPlan> fields;
+
+    @Setup
+    public void setup() {
+        fields = new ObjectSerializer().getPlan(IncludeEverythingObject.class).getFields();
+        classes = fields.stream().map(FieldPlan::getType).toArray(Class[]::new);
+        ordinals = fields.stream().mapToInt(field -> field.getDataType().ordinal()).toArray();
+    }
+
+    /**
+     * The previous {@link DataType#identify(Class)}, scanning all constants and their classes.
+     */
+    private static DataType scan(Class<?> clazz) {
+        for (DataType value : DataType.values()) {
+            for (Class<?> aClass : SCANNED[value.ordinal()]) {
+                if (clazz == aClass) {
+                    return value;
+                }
+            }
+        }
+        return DataType.OBJECT;
+    }
+
+    /**
+     * The previous {@link DataType#identify(int)}, cloning the constants on every call.
+     */
+    private static DataType scan(int ordinal) {
+        for (DataType value : DataType.values()) {
+            if (value.ordinal() == ordinal) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public void scanClass(Blackhole blackhole) {
+        for (Class<?> clazz : classes) {
+            blackhole.consume(scan(clazz));
+        }
+    }
+
+    @Benchmark
+    public void identifyClass(Blackhole blackhole) {
+        for (Class<?> clazz : classes) {
+            blackhole.consume(DataType.identify(clazz));
+        }
+    }
+
+    @Benchmark
+    public void scanOrdinal(Blackhole blackhole) {
+        for (int ordinal : ordinals) {
+            blackhole.consume(scan(ordinal));
+        }
+    }
+
+    @Benchmark
+    public void identifyOrdinal(Blackhole blackhole) {
+        for (int ordinal : ordinals) {
+            blackhole.consume(DataType.identify(ordinal));
+        }
+    }
+
+    @Benchmark
+    public void planDispatch(Blackhole blackhole) {
+        for (FieldPlan field : fields) {
+            blackhole.consume(field.getDataType());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.kurodev.benchmarks;
+
+import org.kurodev.serializers.ObjectSerializer;
+import org.kurodev.serializers.testinstances.IncludeEverythingObject;
+import org.kurodev.serializers.testinstances.InstanceWithObjects;
+import org.kurodev.serializers.testinstances.StringObject;
+import org.kurodev.serializers.testinstances.recursion.LegalRecursiveObject;
+import org.kurodev.serializers.testinstances.recursion.RecursiveObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Round trips the shapes used by the unit tests through {@link ObjectSerializer}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectSerializerBenchmark {
+    @Param({"INCLUDE_EVERYTHING", "INSTANCE_WITH_OBJECTS", "STRING", "RECURSIVE", "LEGAL_RECURSIVE"})
+    private Shape shape;
+    @Param({"REFLECTIVE", "GENERATED"})
+    private ObjectSerializer.Mode mode;
+    @Param({"false", "true"})
+    private boolean compact;
+    private ObjectSerializer serializer;
+    private Object instance;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        serializer = ObjectSerializer.builder().mode(mode).compact(compact).build();
+        instance = shape.create();
+        serializer.prepare(instance.getClass());
+        bytes = serializer.write(instance);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return serializer.write(instance);
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        return serializer.read(bytes, shape.type);
+    }
+
+    public enum Shape {
+        INCLUDE_EVERYTHING(IncludeEverythingObject.class, IncludeEverythingObject::new),
+        INSTANCE_WITH_OBJECTS(InstanceWithObjects.class, InstanceWithObjects::new),
+        STRING(StringObject.class, StringObject::new),
+        RECURSIVE(RecursiveObject.class, RecursiveObject::new),
+        LEGAL_RECURSIVE(LegalRecursiveObject.class, LegalRecursiveObject::new);
+
+        private final Class<?> type;
+        private final Supplier<Object> factory;
+
+        Shape(Class<?> type, Supplier<Object> factory) {
+            this.type = type;
+            this.factory = factory;
+        }
+
+        Object create() {
+            return factory.get();
+        }
+    }
+}
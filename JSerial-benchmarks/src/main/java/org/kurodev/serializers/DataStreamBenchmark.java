@@ -0,0 +1,157 @@
+package org.kurodev.serializers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw primitive throughput of {@link DataWriter} and {@link DataReader}, without any object handling.
+ * Lives in this package because both are only constructed by the serializer itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataStreamBenchmark {
+    private static final int VALUES = 1024;
+    private static final String STRING = "0000testString";
+    private DataWriter writer;
+    private byte[] ints;
+    private byte[] longs;
+    private byte[] doubles;
+    private byte[] strings;
+    private double[] samples;
+    private byte[] sampleArray;
+
+    @Setup
+    public void setup() throws IOException {
+        writer = new DataWriter();
+        ints = fill(w -> w.write(Integer.MAX_VALUE));
+        longs = fill(w -> w.write(Long.MAX_VALUE));
+        doubles = fill(w -> w.write(Double.MAX_VALUE));
+        strings = fill(w -> w.write(STRING));
+        samples = new double[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            samples[i] = i * 0.5;
+        }
+        DataWriter arrayWriter = new DataWriter();
+        arrayWriter.writeArray(samples);
+        sampleArray = arrayWriter.toByteArray();
+    }
+
+    private static byte[] fill(Write write) throws IOException {
+        DataWriter writer = new DataWriter();
+        for (int i = 0; i < VALUES; i++) {
+            write.to(writer);
+        }
+        return writer.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int writeInt() throws IOException {
+        writer.reset();
+        for (int i = 0; i < VALUES; i++) {
+            writer.write(i);
+        }
+        return writer.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int writeLong() throws IOException {
+        writer.reset();
+        for (long i = 0; i < VALUES; i++) {
+            writer.write(i);
+        }
+        return writer.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int writeDouble() throws IOException {
+        writer.reset();
+        for (int i = 0; i < VALUES; i++) {
+            writer.write((double) i);
+        }
+        return writer.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int writeString() throws IOException {
+        writer.reset();
+        for (int i = 0; i < VALUES; i++) {
+            writer.write(STRING);
+        }
+        return writer.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void readInt(Blackhole blackhole) throws IOException {
+        DataReader reader = new DataReader(ints);
+        for (int i = 0; i < VALUES; i++) {
+            blackhole.consume(reader.readInt());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void readLong(Blackhole blackhole) throws IOException {
+        DataReader reader = new DataReader(longs);
+        for (int i = 0; i < VALUES; i++) {
+            blackhole.consume(reader.readLong());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void readDouble(Blackhole blackhole) throws IOException {
+        DataReader reader = new DataReader(doubles);
+        for (int i = 0; i < VALUES; i++) {
+            blackhole.consume(reader.readDouble());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void readString(Blackhole blackhole) throws IOException {
+        DataReader reader = new DataReader(strings);
+        for (int i = 0; i < VALUES; i++) {
+            blackhole.consume(reader.readString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int writeDoubleArray() throws IOException {
+        writer.reset();
+        writer.writeArray(samples);
+        return writer.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public double[] readDoubleArray() throws IOException {
+        return new DataReader(sampleArray).readDoubleArray();
+    }
+
+    private interface Write {
+        void to(DataWriter writer) throws IOException;
+    }
+}
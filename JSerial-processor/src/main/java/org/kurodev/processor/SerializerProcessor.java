@@ -0,0 +1,411 @@
+package org.kurodev.processor;
+
+import org.kurodev.DataType;
+import org.kurodev.serializers.ClassSerializer;
+import org.kurodev.serializers.exception.Exclude;
+import org.kurodev.serializers.exception.GenerateSerializer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a {@link ClassSerializer} for every class annotated with {@link GenerateSerializer}
+ * and registers them as services, so that {@link org.kurodev.serializers.ObjectSerializer} can serialize
+ * those classes without any reflection.
+ * <p>
+ * The generated code skips the same fields as the default {@link org.kurodev.serializers.FieldPolicy} and writes fields in the same order as the reflective path,
+ * inherited fields first and the fields of each class sorted by name, so the output is byte-identical.
+ * Records are read through their canonical constructor.
+ */
+@SupportedAnnotationTypes("org.kurodev.serializers.exception.GenerateSerializer")
+public class SerializerProcessor extends AbstractProcessor {
+    static final String SUFFIX = "_JSerialSerializer";
+    private static final String SERVICE_FILE = "META-INF/services/" + ClassSerializer.class.getName();
+    private static final Map<String, DataType> WRAPPERS = Map.of(
+            Boolean.class.getName(), DataType.BOOLEAN,
+            Byte.class.getName(), DataType.BYTE,
+            Character.class.getName(), DataType.CHAR,
+            Double.class.getName(), DataType.DOUBLE,
+            Float.class.getName(), DataType.FLOAT,
+            Integer.class.getName(), DataType.INTEGER,
+            Long.class.getName(), DataType.LONG,
+            Short.class.getName(), DataType.SHORT,
+            String.class.getName(), DataType.STRING);
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateSerializer.class)) {
+            if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
+                error(element, "@GenerateSerializer can only be applied to classes and records");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (isValid(type)) {
+                generate(type);
+            }
+        }
+        if (roundEnv.processingOver() && !generated.isEmpty()) {
+            writeServiceFile();
+        }
+        return true;
+    }
+
+    private boolean isValid(TypeElement type) {
+        boolean valid = true;
+        Set<Modifier> modifiers = type.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.ABSTRACT)) {
+            valid = error(type, "Serialized classes must not be private or abstract");
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)) {
+            valid = error(type, "Nested serialized classes must be static");
+        } else if (type.getNestingKind().isNested() && type.getNestingKind() != NestingKind.MEMBER) {
+            valid = error(type, "Local and anonymous classes can not be serialized");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            valid = error(type, "Generic classes are not supported by generated serializers");
+        }
+        boolean constructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE));
+        if (!constructor && !isRecord(type)) {
+            valid = error(type, "Serialized classes need a non-private no-arg constructor");
+        }
+        for (VariableElement field : fields(type)) {
+            Set<Modifier> fieldModifiers = field.getModifiers();
+            if (isRecord(type)) {
+                if (dataType(field.asType()) == null) {
+                    valid = error(field, "Unsupported component type " + field.asType());
+                }
+            } else if (fieldModifiers.contains(Modifier.PRIVATE) || fieldModifiers.contains(Modifier.FINAL)) {
+                valid = error(field, "Serialized fields must not be private or final, exclude them with @Exclude");
+            } else if (isInherited(type, field) && !fieldModifiers.contains(Modifier.PUBLIC)
+                    && !packageOf(field).equals(packageOf(type))) {
+                valid = error(field, "Inherited fields from other packages must be public to be serialized by "
+                        + type.getSimpleName() + ", exclude them with @Exclude");
+            } else if (dataType(field.asType()) == null) {
+                valid = error(field, "Unsupported field type " + field.asType());
+            }
+        }
+        return valid;
+    }
+
+    private static boolean isRecord(TypeElement type) {
+        return type.getKind() == ElementKind.RECORD;
+    }
+
+    private static boolean isInherited(TypeElement type, VariableElement field) {
+        return !field.getEnclosingElement().equals(type);
+    }
+
+    private String packageOf(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+    }
+
+    /**
+     * @return The serialized fields in wire order, those of the topmost superclass first
+     */
+    private List<VariableElement> fields(TypeElement type) {
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        hierarchy.push(type);
+        if (!isRecord(type)) {
+            TypeMirror superclass = type.getSuperclass();
+            while (superclass.getKind() == TypeKind.DECLARED) {
+                TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(superclass);
+                if (element.getQualifiedName().contentEquals(Object.class.getName())) {
+                    break;
+                }
+                hierarchy.push(element);
+                superclass = element.getSuperclass();
+            }
+        }
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement clazz : hierarchy) {
+            List<VariableElement> declared = new ArrayList<>();
+            for (VariableElement field : ElementFilter.fieldsIn(clazz.getEnclosedElements())) {
+                //like the default FieldPolicy, static and transient fields are skipped
+                Set<Modifier> modifiers = field.getModifiers();
+                if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)
+                        && field.getAnnotation(Exclude.class) == null) {
+                    declared.add(field);
+                }
+            }
+            declared.sort(Comparator.comparing(field -> field.getSimpleName().toString()));
+            fields.addAll(declared);
+        }
+        return fields;
+    }
+
+    private DataType dataType(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> DataType.BOOLEAN;
+            case BYTE -> DataType.BYTE;
+            case CHAR -> DataType.CHAR;
+            case DOUBLE -> DataType.DOUBLE;
+            case FLOAT -> DataType.FLOAT;
+            case INT -> DataType.INTEGER;
+            case LONG -> DataType.LONG;
+            case SHORT -> DataType.SHORT;
+            case ARRAY -> DataType.ARRAY;
+            case DECLARED -> {
+                String name = processingEnv.getTypeUtils().erasure(type).toString();
+                if (WRAPPERS.containsKey(name)) {
+                    yield WRAPPERS.get(name);
+                } else if (isSubtype(type, Collection.class)) {
+                    yield DataType.COLLECTION;
+                } else if (isSubtype(type, Map.class)) {
+                    yield DataType.MAP;
+                }
+                yield DataType.OBJECT;
+            }
+            default -> null;
+        };
+    }
+
+    /**
+     * Like the reflective path, null values of anything but primitives, arrays, collections and maps are rejected
+     * rather than failing somewhere inside the writer.
+     */
+    private boolean isNullChecked(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        DataType dataType = dataType(type);
+        return dataType != DataType.COLLECTION && dataType != DataType.MAP;
+    }
+
+    private boolean isSubtype(TypeMirror type, Class<?> supertype) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror erased = types.erasure(processingEnv.getElementUtils().getTypeElement(supertype.getName()).asType());
+        return types.isAssignable(types.erasure(type), erased);
+    }
+
+    /**
+     * Collections and maps are written through the {@link org.kurodev.serializers.TypeDescriptor} of their field,
+     * which knows their element types.
+     */
+    private static boolean needsDescriptor(DataType type) {
+        return type == DataType.COLLECTION || type == DataType.MAP;
+    }
+
+    private void generate(TypeElement type) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String target = type.getQualifiedName().toString();
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.printf("package %s;%n%n", packageName);
+            }
+            out.printf("@javax.annotation.processing.Generated(\"%s\")%n", getClass().getName());
+            out.printf("public final class %s implements org.kurodev.serializers.ClassSerializer<%s> {%n%n", simpleName, target);
+            List<VariableElement> fields = fields(type);
+            boolean descriptors = false;
+            for (VariableElement field : fields) {
+                if (needsDescriptor(dataType(field.asType()))) {
+                    out.printf("    private static final org.kurodev.serializers.TypeDescriptor %s = org.kurodev.serializers.TypeDescriptor.of(%s.class, \"%s\");%n",
+                            descriptorName(fields, field), declaringClass(field), field.getSimpleName());
+                    descriptors = true;
+                }
+            }
+            if (descriptors) {
+                out.printf("%n");
+            }
+            out.printf("    @Override%n");
+            out.printf("    public Class<%s> getType() {%n", target);
+            out.printf("        return %s.class;%n", target);
+            out.printf("    }%n%n");
+            out.printf("    @Override%n");
+            out.printf("    public void write(%s obj, org.kurodev.serializers.DataWriter writer, org.kurodev.serializers.ObjectSerializer serializer, int debth) throws java.io.IOException {%n", target);
+            for (VariableElement field : fields) {
+                if (isNullChecked(field.asType())) {
+                    out.printf("        org.kurodev.serializers.ObjectSerializer.requireNonNull(%s, \"%s\");%n",
+                            access(type, field), processingEnv.getTypeUtils().asElement(field.asType()).getSimpleName());
+                }
+                out.printf("        %s;%n", writeStatement(field, access(type, field), descriptorName(fields, field)));
+            }
+            out.printf("    }%n%n");
+            out.printf("    @Override%n");
+            out.printf("    @SuppressWarnings(\"unchecked\")%n");
+            out.printf("    public %s read(org.kurodev.serializers.DataReader reader, org.kurodev.serializers.ObjectSerializer serializer, int debth) throws java.io.IOException {%n", target);
+            if (isRecord(type)) {
+                for (VariableElement field : fields) {
+                    out.printf("        %s c_%s = %s;%n", field.asType(), field.getSimpleName(), readExpression(field, descriptorName(fields, field)));
+                }
+                out.printf("        return new %s(%s);%n", target, constructorArguments(type));
+            } else {
+                out.printf("        %s obj = new %s();%n", target, target);
+                for (VariableElement field : fields) {
+                    out.printf("        %s = %s;%n", access(type, field), readExpression(field, descriptorName(fields, field)));
+                }
+                out.printf("        return obj;%n");
+            }
+            out.printf("    }%n");
+            out.printf("}%n");
+        } catch (IOException e) {
+            error(type, "Could not generate serializer: " + e.getMessage());
+            return;
+        }
+        generated.add(qualifiedName);
+    }
+
+    /**
+     * @return The expression accessing the field of {@code obj}, record components are read through their accessor
+     */
+    private static String access(TypeElement type, VariableElement field) {
+        if (isRecord(type)) {
+            return "obj." + field.getSimpleName() + "()";
+        }
+        if (isInherited(type, field)) {
+            //also reaches fields hidden by a field of the same name in a subclass
+            return "((" + declaringClass(field) + ") obj)." + field.getSimpleName();
+        }
+        return "obj." + field.getSimpleName();
+    }
+
+    /**
+     * @return The name of the descriptor constant of the field, fields hiding one of a superclass are numbered
+     * so each of them gets its own constant
+     */
+    private static String descriptorName(List<VariableElement> fields, VariableElement field) {
+        int hidden = 0;
+        for (VariableElement other : fields) {
+            if (other == field) {
+                break;
+            }
+            if (other.getSimpleName().equals(field.getSimpleName())) {
+                hidden++;
+            }
+        }
+        return hidden == 0 ? "TYPE_" + field.getSimpleName() : "TYPE_" + field.getSimpleName() + "$" + hidden;
+    }
+
+    private static Name declaringClass(VariableElement field) {
+        return ((TypeElement) field.getEnclosingElement()).getQualifiedName();
+    }
+
+    /**
+     * @return The components read before in the order of the canonical constructor, excluded ones as their default value
+     */
+    private String constructorArguments(TypeElement type) {
+        List<VariableElement> fields = fields(type);
+        StringJoiner arguments = new StringJoiner(", ");
+        for (RecordComponentElement component : type.getRecordComponents()) {
+            boolean read = fields.stream().anyMatch(field -> field.getSimpleName().equals(component.getSimpleName()));
+            arguments.add(read ? "c_" + component.getSimpleName() : defaultValue(component.asType()));
+        }
+        return arguments.toString();
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case BYTE, CHAR, SHORT -> "(" + type + ") 0";
+            case DOUBLE -> "0D";
+            case FLOAT -> "0F";
+            case INT -> "0";
+            case LONG -> "0L";
+            default -> "null";
+        };
+    }
+
+    private String writeStatement(VariableElement field, String value, String descriptor) {
+        return switch (dataType(field.asType())) {
+            case BOOLEAN -> "writer.write((boolean) " + value + ")";
+            case BYTE -> "writer.writeByte((byte) " + value + ")";
+            case CHAR -> "writer.write((char) " + value + ")";
+            case DOUBLE -> "writer.write((double) " + value + ")";
+            case FLOAT -> "writer.write((float) " + value + ")";
+            case INTEGER -> "writer.write((int) " + value + ")";
+            case LONG -> "writer.write((long) " + value + ")";
+            case SHORT -> "writer.write((short) " + value + ")";
+            case STRING -> "writer.write(" + value + ")";
+            case ARRAY -> isPrimitiveArray(field.asType())
+                    ? "writer.writeArray(" + value + ")"
+                    : "serializer.writeArray(" + value + ", " + erasure(field) + ".class, writer, debth)";
+            case COLLECTION, MAP -> "serializer.writeValue(" + value + ", " + descriptor + ", writer, debth)";
+            case OBJECT -> "serializer.write(" + value + ", writer, debth + 1)";
+        };
+    }
+
+    private String readExpression(VariableElement field, String descriptor) {
+        return switch (dataType(field.asType())) {
+            case BOOLEAN -> "reader.readBool()";
+            case BYTE -> "reader.readByte()";
+            case CHAR -> "reader.readChar()";
+            case DOUBLE -> "reader.readDouble()";
+            case FLOAT -> "reader.readFloat()";
+            case INTEGER -> "reader.readInt()";
+            case LONG -> "reader.readLong()";
+            case SHORT -> "reader.readShort()";
+            case STRING -> "reader.readString()";
+            case ARRAY -> isPrimitiveArray(field.asType())
+                    ? "reader." + arrayReadMethod(((ArrayType) field.asType()).getComponentType()) + "()"
+                    : "serializer.readArray(" + erasure(field) + ".class, reader, debth)";
+            case COLLECTION, MAP -> "(" + field.asType() + ") serializer.readValue(" + descriptor + ", reader, debth)";
+            case OBJECT -> "serializer.read(reader, " + erasure(field) + ".class, debth + 1)";
+        };
+    }
+
+    private TypeMirror erasure(VariableElement field) {
+        return processingEnv.getTypeUtils().erasure(field.asType());
+    }
+
+    private static boolean isPrimitiveArray(TypeMirror type) {
+        return ((ArrayType) type).getComponentType().getKind().isPrimitive();
+    }
+
+    private static String arrayReadMethod(TypeMirror component) {
+        return switch (component.getKind()) {
+            case BOOLEAN -> "readBooleanArray";
+            case BYTE -> "readByteArray";
+            case CHAR -> "readCharArray";
+            case DOUBLE -> "readDoubleArray";
+            case FLOAT -> "readFloatArray";
+            case INT -> "readIntArray";
+            case LONG -> "readLongArray";
+            case SHORT -> "readShortArray";
+            default -> throw new IllegalArgumentException("Not a primitive: " + component);
+        };
+    }
+
+    private void writeServiceFile() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer out = file.openWriter()) {
+                for (String name : generated) {
+                    out.write(name);
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private boolean error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+}
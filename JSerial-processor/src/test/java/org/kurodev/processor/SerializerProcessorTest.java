@@ -0,0 +1,204 @@
+package org.kurodev.processor;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.kurodev.serializers.ObjectSerializer;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SerializerProcessorTest {
+    private static final String SAMPLE = """
+            package sample;
+
+            import org.kurodev.serializers.exception.Exclude;
+            import org.kurodev.serializers.exception.GenerateSerializer;
+
+            @GenerateSerializer
+            public class Sample {
+                public static int constructed;
+                static final String CONSTANT = "constant";
+                transient int cache = 5;
+                int count = 0xaabbccdd;
+                double ratio = 4235.543262D;
+                String name = "sample";
+                Integer boxed = 0xff;
+                int[] samples = {1, 2, 3};
+                String[] tags = {"a", null};
+                java.util.List<Integer> ids = new java.util.ArrayList<>(java.util.List.of(4, 5));
+                java.util.Map<String, java.util.Set<Long>> groups = java.util.Map.of("g", java.util.Set.of(1L));
+                Nested nested = new Nested();
+                @Exclude
+                private final Object ignored = new Object();
+
+                public Sample() {
+                    constructed++;
+                }
+
+                @GenerateSerializer
+                public static class Nested {
+                    long id = 0x0000ff000000ff00L;
+                    boolean flag = true;
+                }
+
+                public static class Base {
+                    int shared = 7;
+                    java.util.List<String> labels = java.util.List.of("base");
+                }
+
+                @GenerateSerializer
+                public static class Derived extends Base {
+                    int shared = 3;
+                    //hides a collection, both need a descriptor of their own
+                    java.util.Set<Integer> labels = java.util.Set.of(1);
+                    String own = "derived";
+                }
+
+                @GenerateSerializer
+                public record Point(int x, String label, java.util.List<Long> path, @Exclude long cached) {
+                    public Point() {
+                        this(5, "point", java.util.List.of(1L, 2L), 9);
+                    }
+                }
+            }
+            """;
+    private static final String INVALID = """
+            package sample;
+
+            @org.kurodev.serializers.exception.GenerateSerializer
+            public class Invalid {
+                private int hidden;
+            }
+            """;
+    private static Path output;
+    private static ClassLoader previousLoader;
+    private static URLClassLoader loader;
+
+    private static DiagnosticCollector<JavaFileObject> compile(Path out, String name, String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, Locale.ROOT, null)) {
+            files.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(out));
+            files.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, List.of(out));
+            Path sourceFile = Files.createTempDirectory("jserial-src").resolve(name + ".java");
+            Files.writeString(sourceFile, source);
+            var task = compiler.getTask(null, files, diagnostics,
+                    List.of("-classpath", System.getProperty("java.class.path")), null,
+                    files.getJavaFileObjects(sourceFile));
+            task.setProcessors(List.of(new SerializerProcessor()));
+            task.call();
+        }
+        return diagnostics;
+    }
+
+    @BeforeClass
+    public static void compileSample() throws IOException {
+        output = Files.createTempDirectory("jserial-processor");
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(output, "Sample", SAMPLE);
+        Assert.assertTrue(diagnostics.getDiagnostics().toString(), diagnostics.getDiagnostics().stream()
+                .noneMatch(d -> d.getKind() == Diagnostic.Kind.ERROR));
+        loader = new URLClassLoader(new java.net.URL[]{output.toUri().toURL()}, SerializerProcessorTest.class.getClassLoader());
+        //generated serializers are discovered through the context class loader
+        previousLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(loader);
+    }
+
+    @AfterClass
+    public static void restoreLoader() throws IOException {
+        Thread.currentThread().setContextClassLoader(previousLoader);
+        loader.close();
+    }
+
+    @Test
+    public void serializersAreGeneratedAndRegisteredTest() throws IOException {
+        Assert.assertTrue(Files.exists(output.resolve("sample/Sample" + SerializerProcessor.SUFFIX + ".java")));
+        Assert.assertTrue(Files.exists(output.resolve("sample/Sample_Nested" + SerializerProcessor.SUFFIX + ".java")));
+        List<String> services = Files.readAllLines(output.resolve("META-INF/services/org.kurodev.serializers.ClassSerializer"));
+        assertEquals(List.of("sample.Sample_Derived" + SerializerProcessor.SUFFIX, "sample.Sample" + SerializerProcessor.SUFFIX,
+                "sample.Sample_Nested" + SerializerProcessor.SUFFIX, "sample.Sample_Point" + SerializerProcessor.SUFFIX), services);
+    }
+
+    @Test
+    public void generatedOutputIsIdenticalTest() throws ReflectiveOperationException {
+        Class<?> sample = loader.loadClass("sample.Sample");
+        Object source = sample.getConstructor().newInstance();
+        byte[] compiled = new ObjectSerializer().write(source);
+        byte[] reflective = ObjectSerializer.builder().compiledSerializers(false).build().write(source);
+        assertArrayEquals(reflective, compiled);
+    }
+
+    @Test
+    public void inheritedFieldsAndRecordsTest() throws ReflectiveOperationException {
+        var compiled = new ObjectSerializer();
+        var reflective = ObjectSerializer.builder().compiledSerializers(false).build();
+        for (String name : new String[]{"sample.Sample$Derived", "sample.Sample$Point"}) {
+            Class<?> type = loader.loadClass(name);
+            Object source = type.getConstructor().newInstance();
+            byte[] written = compiled.write(source);
+            assertArrayEquals(reflective.write(source), written);
+            assertArrayEquals(written, compiled.write(compiled.read(written, type)));
+            assertArrayEquals(written, reflective.write(reflective.read(written, type)));
+        }
+        Class<?> point = loader.loadClass("sample.Sample$Point");
+        Object read = compiled.read(compiled.write(point.getConstructor().newInstance()), point);
+        //the excluded component is passed as its default value
+        assertEquals(0L, point.getMethod("cached").invoke(read));
+        assertEquals(5, point.getMethod("x").invoke(read));
+    }
+
+    @Test
+    public void generatedReaderUsesConstructorTest() throws ReflectiveOperationException {
+        Class<?> sample = loader.loadClass("sample.Sample");
+        var serializer = new ObjectSerializer();
+        byte[] written = serializer.write(sample.getConstructor().newInstance());
+        int constructed = sample.getField("constructed").getInt(null);
+        Object read = serializer.read(written, sample);
+        //objenesis would not have invoked the constructor
+        assertEquals(constructed + 1, sample.getField("constructed").getInt(null));
+        assertArrayEquals(written, serializer.write(read));
+    }
+
+    @Test
+    public void nullFieldsAreRejectedLikeReflectivelyTest() throws ReflectiveOperationException {
+        Class<?> sample = loader.loadClass("sample.Sample");
+        var compiled = new ObjectSerializer();
+        var reflective = ObjectSerializer.builder().compiledSerializers(false).build();
+        for (String name : new String[]{"name", "nested", "boxed"}) {
+            Object source = sample.getConstructor().newInstance();
+            Field field = sample.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(source, null);
+            String expected = null;
+            try {
+                reflective.write(source);
+            } catch (IllegalArgumentException e) {
+                expected = e.getMessage();
+            }
+            try {
+                compiled.write(source);
+                Assert.fail("null " + name + " was written");
+            } catch (IllegalArgumentException e) {
+                Assert.assertNotNull(expected);
+                assertEquals(expected, e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void privateFieldsAreRejectedTest() throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(Files.createTempDirectory("jserial-invalid"), "Invalid", INVALID);
+        Assert.assertTrue(diagnostics.getDiagnostics().stream()
+                .anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR && d.getMessage(Locale.ROOT).contains("must not be private")));
+    }
+}
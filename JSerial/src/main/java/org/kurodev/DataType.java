@@ -0,0 +1,92 @@
+package org.kurodev;
+
+import java.util.Collection;
+import java.util.Map;
+
+public enum DataType {
+    BOOLEAN(1, Boolean.class, boolean.class),
+    BYTE(Byte.BYTES, Byte.class, byte.class),
+    CHAR(Character.BYTES, Character.class, char.class),
+    DOUBLE(Double.BYTES, Double.class, double.class),
+    FLOAT(Float.BYTES, Float.class, float.class),
+    INTEGER(Integer.BYTES, Integer.class, int.class),
+    LONG(Long.BYTES, Long.class, long.class),
+    OBJECT(-1, Object.class),
+    SHORT(Short.BYTES, Short.class, short.class),
+    STRING(-1, String.class),
+    //constants added later are appended, so the ordinals of the existing ones stay the same
+    /**
+     * Any array, written as its length followed by the elements. A length of -1 stands for {@code null}.
+     */
+    ARRAY(-1),
+    /**
+     * Any {@link Collection}, written like an array.
+     */
+    COLLECTION(-1),
+    /**
+     * Any {@link Map}, written as its size followed by alternating keys and values.
+     */
+    MAP(-1);
+
+
+    private static final DataType[] VALUES = values();
+    /**
+     * Classifies each class only once, later lookups do not scan the constants anymore.
+     */
+    private static final ClassValue<DataType> TYPES = new ClassValue<>() {
+        @Override
+        protected DataType computeValue(Class<?> type) {
+            return classify(type);
+        }
+    };
+    private final int size;
+    private final Class<?>[] clazzes;
+
+    DataType(int size, Class<?>... clazzes) {
+        this.size = size;
+        this.clazzes = clazzes;
+    }
+
+    /**
+     * @return The constant with the given ordinal, or {@code null} if there is none
+     */
+    public static DataType identify(int rByte) {
+        if (rByte < 0 || rByte >= VALUES.length) {
+            return null;
+        }
+        return VALUES[rByte];
+    }
+
+    public static DataType identify(Class<?> clazz) {
+        return TYPES.get(clazz);
+    }
+
+    private static DataType classify(Class<?> clazz) {
+        if (clazz.isArray()) {
+            return ARRAY;
+        }
+        for (DataType value : VALUES) {
+            for (Class<?> aClass : value.clazzes) {
+                if (clazz == aClass) {
+                    return value;
+                }
+
+            }
+        }
+        if (Collection.class.isAssignableFrom(clazz)) {
+            return COLLECTION;
+        }
+        if (Map.class.isAssignableFrom(clazz)) {
+            return MAP;
+        }
+        return OBJECT;
+    }
+
+    public static DataType identify(Object obj) {
+        return identify(obj.getClass());
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,198 @@
+package org.kurodev.serializers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes and reads batches of objects in parallel. A batch is the sequence of frames an {@link ObjectWriter} writes,
+ * each the length of an object followed by the object, so it can be read by an {@link ObjectReader} as well.
+ * <p>
+ * The objects are split into contiguous chunks, each written into its own buffer by one task, and the buffers are
+ * joined in the order of the chunks. Reading first finds the offset of every frame by following the lengths,
+ * without decoding anything, then decodes chunks of frames in parallel.
+ * <p>
+ * Schema evolution numbers the schemas across the whole stream, such batches are written and read on the calling thread.
+ *
+ * @see ObjectSerializer#writeAll(List, Executor)
+ * @see ObjectSerializer#readAll(byte[], Class, Executor)
+ */
+final class Batch {
+    /**
+     * Smaller chunks would spend more time on scheduling than on serializing.
+     */
+    private static final int MIN_CHUNK = 64;
+    private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+    private Batch() {
+    }
+
+    static byte[] write(ObjectSerializer serializer, BufferPool buffers, List<?> objects, Executor executor) throws IOException {
+        int[] bounds = chunks(serializer, objects.size(), executor);
+        DataWriter[] chunks = new DataWriter[bounds.length - 1];
+        if (chunks.length == 1) {
+            chunks[0] = writeChunk(serializer, buffers, objects, bounds[0], bounds[1]);
+        } else {
+            List<CompletableFuture<DataWriter>> tasks = new ArrayList<>(chunks.length);
+            for (int i = 0; i < chunks.length; i++) {
+                int from = bounds[i];
+                int to = bounds[i + 1];
+                tasks.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return writeChunk(serializer, buffers, objects, from, to);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+            }
+            try {
+                for (int i = 0; i < chunks.length; i++) {
+                    chunks[i] = join(tasks.get(i));
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                //chunks that succeeded hand back their buffers, now or once they are done
+                for (CompletableFuture<DataWriter> task : tasks) {
+                    task.thenAccept(chunk -> buffers.release(chunk.getBuffer()));
+                }
+                throw e;
+            }
+        }
+        try {
+            long length = 0;
+            for (DataWriter chunk : chunks) {
+                length += chunk.size();
+            }
+            if (length > MAX_LENGTH) {
+                throw new IOException("Batch of " + length + " bytes does not fit into an array");
+            }
+            byte[] bytes = new byte[(int) length];
+            int position = 0;
+            for (DataWriter chunk : chunks) {
+                System.arraycopy(chunk.getBuffer().array(), chunk.getBuffer().arrayOffset(), bytes, position, chunk.size());
+                position += chunk.size();
+            }
+            return bytes;
+        } finally {
+            for (DataWriter chunk : chunks) {
+                buffers.release(chunk.getBuffer());
+            }
+        }
+    }
+
+    private static DataWriter writeChunk(ObjectSerializer serializer, BufferPool buffers, List<?> objects, int from, int to) throws IOException {
+        //a single writer per chunk, so with schema evolution the chunk shares one schema table like an ObjectWriter
+        var writer = serializer.configure(new DataWriter(null, null, buffers.acquire(DataWriter.DEFAULT_BUFFER_SIZE), true));
+        try {
+            for (int i = from; i < to; i++) {
+                int frame = writer.reserveInt();
+                serializer.write(objects.get(i), writer, 0);
+                writer.putInt(frame, writer.size() - frame - Integer.BYTES);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            buffers.release(writer.getBuffer());
+            throw e;
+        }
+        return writer;
+    }
+
+    static <T> List<T> read(ObjectSerializer serializer, byte[] bytes, Class<T> type, Executor executor) throws IOException {
+        int[] frames = frames(bytes);
+        Object[] objects = new Object[frames.length];
+        int[] bounds = chunks(serializer, frames.length, executor);
+        if (bounds.length == 2) {
+            readChunk(serializer, bytes, frames, objects, type, bounds[0], bounds[1]);
+        } else {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i < bounds.length - 1; i++) {
+                int from = bounds[i];
+                int to = bounds[i + 1];
+                tasks.add(CompletableFuture.runAsync(() -> readChunk(serializer, bytes, frames, objects, type, from, to), executor));
+            }
+            for (CompletableFuture<Void> task : tasks) {
+                join(task);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<T> list = (List<T>) Arrays.asList(objects);
+        return list;
+    }
+
+    private static void readChunk(ObjectSerializer serializer, byte[] bytes, int[] frames, Object[] objects,
+                                  Class<?> type, int from, int to) {
+        //the frames of a chunk are read in order, with schema evolution they share the schemas of the stream
+        SchemaTable schemas = serializer.newSchemaTable();
+        for (int i = from; i < to; i++) {
+            int offset = frames[i] + Integer.BYTES;
+            int length = (i + 1 < frames.length ? frames[i + 1] : bytes.length) - offset;
+            DataReader reader = serializer.configure(new DataReader(ByteBuffer.wrap(bytes, offset, length)));
+            reader.setSchemas(schemas);
+            objects[i] = serializer.read(reader, type, 0);
+        }
+    }
+
+    /**
+     * @return The offset of each frame in the batch
+     * @throws IOException if a frame length is invalid
+     */
+    static int[] frames(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int[] frames = new int[16];
+        int count = 0;
+        int position = 0;
+        while (position < bytes.length) {
+            if (bytes.length - position < Integer.BYTES) {
+                throw new IOException("Truncated frame length at " + position);
+            }
+            int length = buffer.getInt(position);
+            if (length < 0 || length > bytes.length - position - Integer.BYTES) {
+                throw new IOException("Invalid frame length at " + position + ": " + length);
+            }
+            if (count == frames.length) {
+                frames = Arrays.copyOf(frames, count * 2);
+            }
+            frames[count++] = position;
+            position += Integer.BYTES + length;
+        }
+        return Arrays.copyOf(frames, count);
+    }
+
+    /**
+     * Splits the given amount of objects into chunks, a few per thread of the executor so that threads finishing
+     * early can pick up more work.
+     *
+     * @return The bounds of the chunks, the first chunk starting at the first and ending before the second etc.
+     */
+    private static int[] chunks(ObjectSerializer serializer, int size, Executor executor) {
+        int parallelism = executor instanceof ForkJoinPool pool ? pool.getParallelism() : Runtime.getRuntime().availableProcessors();
+        int count = serializer.isSchemaEvolution() ? 1 : Math.max(1, Math.min((size + MIN_CHUNK - 1) / MIN_CHUNK, parallelism * 4));
+        int[] bounds = new int[count + 1];
+        for (int i = 0; i <= count; i++) {
+            bounds[i] = (int) ((long) size * i / count);
+        }
+        return bounds;
+    }
+
+    private static <T> T join(CompletableFuture<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
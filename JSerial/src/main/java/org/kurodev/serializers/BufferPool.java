@@ -0,0 +1,77 @@
+package org.kurodev.serializers;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free pool of heap buffers shared by all threads using an {@link ObjectSerializer}.
+ * Unlike a {@link ThreadLocal} it holds no more buffers than it has slots, no matter how many threads,
+ * virtual ones included, pass through it. Each thread starts looking at a different slot to spread contention.
+ * <p>
+ * When the pool is empty a new buffer is allocated, when it is full a released buffer is left to the garbage collector.
+ */
+final class BufferPool {
+    /**
+     * Buffers that grew beyond this while writing a large object are not kept.
+     */
+    static final int MAX_RETAINED = 1 << 20;
+    private final AtomicReferenceArray<ByteBuffer> slots;
+    private final int mask;
+
+    /**
+     * @param slots The amount of buffers kept at most, rounded up to a power of two
+     */
+    BufferPool(int slots) {
+        int size = slots <= 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return A cleared buffer of at least the given capacity, taken from the pool if it holds one
+     */
+    ByteBuffer acquire(int capacity) {
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            ByteBuffer buffer = slots.get(slot);
+            if (buffer != null && buffer.capacity() >= capacity && slots.compareAndSet(slot, buffer, null)) {
+                return buffer.clear();
+            }
+        }
+        return ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Hands a buffer back to the pool, it must not be used afterwards.
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer.capacity() > MAX_RETAINED || buffer.isDirect()) {
+            return;
+        }
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The amount of buffers currently held by the pool
+     */
+    int size() {
+        int size = 0;
+        for (int i = 0; i <= mask; i++) {
+            if (slots.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private static int probe() {
+        return (int) Thread.currentThread().getId();
+    }
+}
@@ -0,0 +1,173 @@
+package org.kurodev.serializers;
+
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The serialization plan of a class: its serializable fields in wire order, with static, synthetic and
+ * fields skipped by the {@link FieldPolicy} already filtered out.
+ * The fields of superclasses come first, starting with the topmost one, the fields of each class are sorted by name.
+ * Records are planned from their components, also sorted by name, and created through their canonical constructor.
+ * Plans are built once per class by {@link ClassPlanCache} and shared by all threads using its serializer.
+ * Apart from the schema and instantiator, which are built on first use and published through volatile fields,
+ * they are immutable.
+ */
+public final class ClassPlan {
+    //the plan holds on to the instantiator of its class, Objenesis does not need to cache them as well
+    private static final Objenesis OBJENESIS = new ObjenesisStd(false);
+    private final Class<?> type;
+    private final FieldPlan[] fields;
+    private final int nullableFields;
+    private final MethodHandle constructor;
+    private final Object[] components;
+    private volatile Schema schema;
+    private volatile ObjectInstantiator<?> instantiator;
+
+    private ClassPlan(Class<?> type, FieldPlan[] fields, MethodHandle constructor, Object[] components) {
+        this.type = type;
+        this.fields = fields;
+        this.nullableFields = (int) Arrays.stream(fields).filter(field -> !field.getAccessor().isPrimitive()).count();
+        this.constructor = constructor;
+        this.components = components;
+    }
+
+    static ClassPlan create(Class<?> type, FieldPolicy policy) {
+        if (type.isRecord()) {
+            return createRecord(type, policy);
+        }
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            hierarchy.push(clazz);
+        }
+        List<FieldPlan> fields = new ArrayList<>();
+        for (Class<?> clazz : hierarchy) {
+            Field[] declared = clazz.getDeclaredFields();
+            Arrays.sort(declared, Comparator.comparing(Field::getName));
+            for (Field field : declared) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !field.isSynthetic() && policy.isSerialized(field)) {
+                    fields.add(new FieldPlan(field));
+                }
+            }
+        }
+        return new ClassPlan(type, fields.toArray(FieldPlan[]::new), null, null);
+    }
+
+    private static ClassPlan createRecord(Class<?> type, FieldPolicy policy) {
+        RecordComponent[] recordComponents = type.getRecordComponents();
+        Class<?>[] parameters = new Class<?>[recordComponents.length];
+        Object[] defaults = new Object[recordComponents.length];
+        List<FieldPlan> fields = new ArrayList<>();
+        try {
+            for (int i = 0; i < recordComponents.length; i++) {
+                parameters[i] = recordComponents[i].getType();
+                //excluded and added components are passed as 0, false or null
+                defaults[i] = parameters[i].isPrimitive() ? Array.get(Array.newInstance(parameters[i], 1), 0) : null;
+                Field field = type.getDeclaredField(recordComponents[i].getName());
+                if (policy.isSerialized(field)) {
+                    fields.add(new FieldPlan(field, i));
+                }
+            }
+            fields.sort(Comparator.comparing(FieldPlan::getName));
+            Constructor<?> canonical = type.getDeclaredConstructor(parameters);
+            canonical.setAccessible(true);
+            MethodHandle constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                    .asSpreader(Object[].class, parameters.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new ClassPlan(type, fields.toArray(FieldPlan[]::new), constructor, defaults);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Record " + type.getName() + " is not accessible", e);
+        }
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    FieldPlan[] fields() {
+        return fields;
+    }
+
+    public boolean isRecord() {
+        return constructor != null;
+    }
+
+    /**
+     * @return The arguments of the canonical constructor of the record, each set to its default value
+     */
+    Object[] newComponents() {
+        return components.clone();
+    }
+
+    /**
+     * Creates the record through its canonical constructor.
+     */
+    Object construct(Object[] components) {
+        try {
+            return (Object) constructor.invokeExact(components);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Could not create " + type.getName(), t);
+        }
+    }
+
+    /**
+     * @return The amount of reference-typed fields, which may hold {@code null}
+     */
+    public int getNullableFieldCount() {
+        return nullableFields;
+    }
+
+    /**
+     * @return The schema of the fields, built on first use. Racing threads may each build an equal schema
+     * and whichever is stored last is kept, which is harmless as schemas are only ever compared by equality,
+     * {@link Schema#resolve(ClassPlan)} merely takes a shortcut for the instance it finds here.
+     */
+    public Schema getSchema() {
+        Schema schema = this.schema;
+        if (schema == null) {
+            schema = Schema.of(this);
+            this.schema = schema;
+        }
+        return schema;
+    }
+
+    /**
+     * @return The instantiator creating instances of the class without calling a constructor, built on first use
+     * and kept for the lifetime of the plan. Racing threads may each build one, either is as good as the other.
+     */
+    ObjectInstantiator<?> getInstantiator() {
+        ObjectInstantiator<?> instantiator = this.instantiator;
+        if (instantiator == null) {
+            instantiator = OBJENESIS.getInstantiatorOf(type);
+            this.instantiator = instantiator;
+        }
+        return instantiator;
+    }
+
+    public List<FieldPlan> getFields() {
+        return List.of(fields);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassPlan{" + type.getName() + Arrays.toString(fields) + "}";
+    }
+}
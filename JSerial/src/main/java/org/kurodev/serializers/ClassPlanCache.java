@@ -0,0 +1,57 @@
+package org.kurodev.serializers;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe cache of {@link ClassPlan}s and of the {@link Schema}s read for them.
+ * A plain map is used rather than a {@link ClassValue} so that the size can be inspected,
+ * the cache belongs to a single {@link ObjectSerializer} and is discarded along with it.
+ */
+class ClassPlanCache {
+    /**
+     * Streams may define any number of schemas, beyond this many they are no longer shared.
+     */
+    static final int MAX_SCHEMAS = 4096;
+    private final ConcurrentMap<Class<?>, ClassPlan> plans = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Schema, Schema> schemas = new ConcurrentHashMap<>();
+    private final FieldPolicy policy;
+
+    ClassPlanCache(FieldPolicy policy) {
+        this.policy = policy;
+    }
+
+    ClassPlan get(Class<?> type) {
+        ClassPlan plan = plans.get(type);
+        if (plan == null) {
+            //plans are cheap to build twice, racing threads simply agree on whichever was stored first
+            ClassPlan created = ClassPlan.create(type, policy);
+            plan = plans.putIfAbsent(type, created);
+            if (plan == null) {
+                plan = created;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @return The instance equal to the given schema that was interned first, which is the given one if there is none
+     */
+    Schema intern(Schema schema) {
+        Schema interned = schemas.get(schema);
+        if (interned == null) {
+            if (schemas.size() >= MAX_SCHEMAS) {
+                return schema;
+            }
+            interned = schemas.putIfAbsent(schema, schema);
+            if (interned == null) {
+                interned = schema;
+            }
+        }
+        return interned;
+    }
+
+    int size() {
+        return plans.size();
+    }
+}
@@ -0,0 +1,40 @@
+package org.kurodev.serializers;
+
+import java.io.IOException;
+
+/**
+ * A serializer dedicated to a single class, producing the same bytes as the reflective path of {@link ObjectSerializer}.
+ * Implementations are either generated at runtime ({@link ObjectSerializer.Mode#GENERATED}) or at compile time
+ * for classes annotated with {@link org.kurodev.serializers.exception.GenerateSerializer}, the latter are registered
+ * as services of this interface.
+ * <p>
+ * Values they do not handle themselves are handed back to the {@link ObjectSerializer}, e.g. through
+ * {@link ObjectSerializer#writeField(Object, FieldPlan, DataWriter, int)} and
+ * {@link ObjectSerializer#readField(Object, FieldPlan, DataReader, int)}.
+ *
+ * @param <T> The serialized class
+ */
+public interface ClassSerializer<T> {
+
+    Class<T> getType();
+
+    /**
+     * Writes all fields of the given object.
+     *
+     * @param obj        The object to write
+     * @param writer     The writer to write to
+     * @param serializer The serializer to delegate nested values to
+     * @param debth      The current recursive debth
+     */
+    void write(T obj, DataWriter writer, ObjectSerializer serializer, int debth) throws IOException;
+
+    /**
+     * Creates a new instance and reads all of its fields.
+     *
+     * @param reader     The reader to read from
+     * @param serializer The serializer to delegate nested values to
+     * @param debth      The current recursive debth
+     * @return The read object
+     */
+    T read(DataReader reader, ObjectSerializer serializer, int debth) throws IOException;
+}
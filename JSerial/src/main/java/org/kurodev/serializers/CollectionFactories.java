@@ -0,0 +1,125 @@
+package org.kurodev.serializers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Creates the collections and maps read by an {@link ObjectSerializer}, presized for the amount of elements that follow.
+ * The declared type of a field decides what is created, e.g. an {@link ArrayList} for a {@link List} field.
+ * Concrete classes without a registered factory are created through their public no-arg constructor.
+ */
+class CollectionFactories {
+    private final Map<Class<?>, IntFunction<?>> registered = new HashMap<>();
+    private final ConcurrentMap<Class<?>, IntFunction<?>> resolved = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Function<Collection<Object>, Collection<Object>>> copied = new HashMap<>();
+
+    CollectionFactories() {
+        register(Collection.class, ArrayList::new);
+        register(List.class, ArrayList::new);
+        register(ArrayList.class, ArrayList::new);
+        register(LinkedList.class, size -> new LinkedList<>());
+        //every add copies the whole array, so the elements are collected first and copied once
+        registerCopied(CopyOnWriteArrayList.class, CopyOnWriteArrayList::new);
+        register(Set.class, size -> new HashSet<>(capacity(size)));
+        register(HashSet.class, size -> new HashSet<>(capacity(size)));
+        register(LinkedHashSet.class, size -> new LinkedHashSet<>(capacity(size)));
+        register(SortedSet.class, size -> new TreeSet<>());
+        register(NavigableSet.class, size -> new TreeSet<>());
+        register(TreeSet.class, size -> new TreeSet<>());
+        register(ConcurrentSkipListSet.class, size -> new ConcurrentSkipListSet<>());
+        register(Queue.class, ArrayDeque::new);
+        register(Deque.class, ArrayDeque::new);
+        register(ArrayDeque.class, ArrayDeque::new);
+        register(PriorityQueue.class, size -> new PriorityQueue<>(Math.max(1, size)));
+        register(Map.class, size -> new HashMap<>(capacity(size)));
+        register(HashMap.class, size -> new HashMap<>(capacity(size)));
+        register(LinkedHashMap.class, size -> new LinkedHashMap<>(capacity(size)));
+        register(SortedMap.class, size -> new TreeMap<>());
+        register(NavigableMap.class, size -> new TreeMap<>());
+        register(TreeMap.class, size -> new TreeMap<>());
+        //the constructor argument of ConcurrentHashMap is the expected size already
+        register(ConcurrentMap.class, ConcurrentHashMap::new);
+        register(ConcurrentHashMap.class, ConcurrentHashMap::new);
+        register(ConcurrentSkipListMap.class, size -> new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * @return The initial capacity of a hash based collection that holds the given amount of elements without rehashing
+     */
+    static int capacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f + 1.0f);
+    }
+
+    void register(Class<?> type, IntFunction<?> factory) {
+        registered.put(type, factory);
+        copied.remove(type);
+    }
+
+    /**
+     * Registers a collection that is read into an {@link ArrayList} and created from it once all elements are known.
+     */
+    void registerCopied(Class<?> type, Function<Collection<Object>, Collection<Object>> copy) {
+        registered.put(type, ArrayList::new);
+        copied.put(type, copy);
+    }
+
+    @SuppressWarnings("unchecked")
+    Collection<Object> newCollection(Class<?> type, int size) {
+        return (Collection<Object>) factory(type).apply(size);
+    }
+
+    /**
+     * @param values The collection created by {@link #newCollection(Class, int)}, holding all elements
+     * @return The collection of the given type holding the elements
+     */
+    Collection<Object> complete(Class<?> type, Collection<Object> values) {
+        Function<Collection<Object>, Collection<Object>> copy = copied.get(type);
+        return copy == null ? values : copy.apply(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<Object, Object> newMap(Class<?> type, int size) {
+        return (Map<Object, Object>) factory(type).apply(size);
+    }
+
+    private IntFunction<?> factory(Class<?> type) {
+        IntFunction<?> factory = resolved.get(type);
+        if (factory == null) {
+            factory = resolved.computeIfAbsent(type, this::resolve);
+        }
+        return factory;
+    }
+
+    private IntFunction<?> resolve(Class<?> type) {
+        IntFunction<?> factory = registered.get(type);
+        if (factory != null) {
+            return factory;
+        }
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("No factory registered for " + type.getName());
+        }
+        try {
+            MethodHandle constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class));
+            return size -> {
+                try {
+                    return constructor.invoke();
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Could not create " + type.getName(), e);
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No factory registered for " + type.getName()
+                    + " and it has no public no-arg constructor", e);
+        }
+    }
+}
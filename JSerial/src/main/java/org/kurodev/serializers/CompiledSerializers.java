@@ -0,0 +1,33 @@
+package org.kurodev.serializers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Holds the {@link ClassSerializer}s generated at compile time for classes annotated with
+ * {@link org.kurodev.serializers.exception.GenerateSerializer}, discovered once through {@link ServiceLoader}.
+ */
+final class CompiledSerializers {
+    private static final Map<Class<?>, ClassSerializer<?>> SERIALIZERS = load();
+
+    private CompiledSerializers() {
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Map<Class<?>, ClassSerializer<?>> load() {
+        Map<Class<?>, ClassSerializer<?>> serializers = new HashMap<>();
+        for (ClassSerializer serializer : ServiceLoader.load(ClassSerializer.class)) {
+            serializers.put(serializer.getType(), serializer);
+        }
+        return Map.copyOf(serializers);
+    }
+
+    /**
+     * @return The compiled serializer of the given class, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ClassSerializer<T> get(Class<?> type) {
+        return (ClassSerializer<T>) SERIALIZERS.get(type);
+    }
+}
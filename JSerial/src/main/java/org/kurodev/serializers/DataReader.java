@@ -0,0 +1,622 @@
+package org.kurodev.serializers;
+
+import org.kurodev.DataType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Decodes big-endian values in place from an internal buffer.
+ * When reading from a stream or channel the buffer is refilled in bulk as needed,
+ * byte arrays and {@link ByteBuffer}s are read directly without copying them first.
+ * <p>
+ * Must be in compact mode to read what a {@link DataWriter} wrote in compact mode.
+ */
+public class DataReader extends Serializer {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    private final InputStream in;
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private boolean compact;
+    private List<Object> references;
+    private SchemaTable schemas;
+    private List<String> strings;
+    private StringCache stringCache;
+
+    DataReader(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param in         The stream to read from
+     * @param bufferSize The amount of bytes read from the stream at once
+     */
+    DataReader(InputStream in, int bufferSize) {
+        this(in, null, allocate(bufferSize));
+    }
+
+    /**
+     * @param channel    The channel to read from, expected to be blocking
+     * @param bufferSize The amount of bytes read from the channel at once
+     */
+    DataReader(ReadableByteChannel channel, int bufferSize) {
+        this(null, channel, allocate(bufferSize));
+    }
+
+    /**
+     * @param bytes The bytes to read, they are not copied
+     */
+    DataReader(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads from the remaining bytes of the given buffer, which is not modified.
+     * Values are always read big-endian, regardless of the byte order of the buffer.
+     *
+     * @param buffer The buffer to read, may be direct
+     * @see #position()
+     */
+    DataReader(ByteBuffer buffer) {
+        this(null, null, buffer.slice().order(ByteOrder.BIG_ENDIAN));
+    }
+
+    /**
+     * Creates a reader around a buffer it takes over, e.g. one from a {@link BufferPool}.
+     *
+     * @param buffer The buffer to read from first, flipped so that only the bytes not yet read remain
+     */
+    DataReader(InputStream in, ReadableByteChannel channel, ByteBuffer buffer) {
+        this.in = in;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @param compact Whether ints, longs and string lengths are read as varints
+     * @see DataWriter#isCompact()
+     */
+    void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * @param references The objects seen so far while reference tracking, or {@code null} if it is disabled
+     */
+    void setReferences(List<Object> references) {
+        this.references = references;
+    }
+
+    List<Object> getReferences() {
+        return references;
+    }
+
+    /**
+     * @param schemas The schemas of the stream, or {@code null} if they are not written
+     */
+    void setSchemas(SchemaTable schemas) {
+        this.schemas = schemas;
+    }
+
+    SchemaTable getSchemas() {
+        return schemas;
+    }
+
+    /**
+     * @param strings The strings read so far, or {@code null} if strings are not deduplicated
+     * @see DataWriter#write(String)
+     */
+    void setStrings(List<String> strings) {
+        this.strings = strings;
+    }
+
+    List<String> getStrings() {
+        return strings;
+    }
+
+    /**
+     * @param stringCache The cache short strings are looked up in before they are decoded, or {@code null}
+     */
+    void setStringCache(StringCache stringCache) {
+        this.stringCache = stringCache;
+    }
+
+    private static ByteBuffer allocate(int bufferSize) {
+        if (bufferSize < Long.BYTES) {
+            throw new IllegalArgumentException("Buffer size must be at least " + Long.BYTES);
+        }
+        return ByteBuffer.allocate(bufferSize).flip();
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given amount of bytes, refilling it from the stream if necessary.
+     * Must not be called with more bytes than the buffer can hold.
+     */
+    private ByteBuffer require(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            fill(bytes);
+        }
+        return buffer;
+    }
+
+    private void fill(int bytes) throws IOException {
+        if (in == null && channel == null) {
+            throw new EOFException("Expected " + bytes + " more bytes but only " + buffer.remaining() + " remain");
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < bytes) {
+                int read = readSource(buffer);
+                if (read < 0) {
+                    throw new EOFException("Expected " + bytes + " more bytes but the stream ended after " + buffer.position());
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    /**
+     * Reads as many bytes as are available from the stream or channel into the remaining space of the given buffer.
+     *
+     * @return The amount of bytes read, or -1 at the end of the source
+     */
+    private int readSource(ByteBuffer target) throws IOException {
+        if (channel != null) {
+            return channel.read(target);
+        }
+        int read = in.read(target.array(), target.arrayOffset() + target.position(), target.remaining());
+        if (read > 0) {
+            target.position(target.position() + read);
+        }
+        return read;
+    }
+
+    public int readInt() throws IOException {
+        if (compact) {
+            int zigzag = readVarInt();
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        return require(Integer.BYTES).getInt();
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint.
+     *
+     * @see DataWriter#writeVarInt(int)
+     */
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint, more than 5 bytes");
+    }
+
+    /**
+     * @see #readVarInt()
+     */
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint, more than 10 bytes");
+    }
+
+    public short readShort() throws IOException {
+        return require(Short.BYTES).getShort();
+    }
+
+    public long readLong() throws IOException {
+        if (compact) {
+            long zigzag = readVarLong();
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        return require(Long.BYTES).getLong();
+    }
+
+    public boolean readBool() throws IOException {
+        return require(1).get() == 1;
+    }
+
+    public float readFloat() throws IOException {
+        return require(Float.BYTES).getFloat();
+    }
+
+    public double readDouble() throws IOException {
+        return require(Double.BYTES).getDouble();
+    }
+
+    public byte readByte() throws IOException {
+        return require(Byte.BYTES).get();
+    }
+
+    public char readChar() throws IOException {
+        return require(Character.BYTES).getChar();
+    }
+
+    public String readString() throws IOException {
+        if (strings != null) {
+            int tag = readVarInt();
+            if (tag > 0) {
+                if (tag > strings.size()) {
+                    throw new IOException("Reference to string " + (tag - 1) + " which has not been read yet");
+                }
+                return strings.get(tag - 1);
+            }
+            String str = readPlainString();
+            strings.add(str);
+            return str;
+        }
+        return readPlainString();
+    }
+
+    /**
+     * @see DataWriter#writePlain(String)
+     */
+    String readPlainString() throws IOException {
+        int length = compact ? readVarInt() : require(Integer.BYTES).getInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        if (length <= buffer.capacity()) {
+            require(length);
+            if (buffer.hasArray()) {
+                //decode straight from the buffer instead of copying the bytes out first
+                int offset = buffer.arrayOffset() + buffer.position();
+                String str = stringCache != null && length <= StringCache.MAX_LENGTH
+                        ? stringCache.get(buffer.array(), offset, length)
+                        : new String(buffer.array(), offset, length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                return str;
+            }
+        }
+        return new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the length of an array written by {@link DataWriter#writeArray(byte[])} and its siblings.
+     *
+     * @return The length, or -1 for {@code null}
+     */
+    public int readArrayLength() throws IOException {
+        int length = readInt();
+        if (length < -1) {
+            throw new IOException("Invalid array length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Makes sure the buffer holds as many elements of the given size as possible, refilling it if necessary.
+     *
+     * @return The amount of elements that can be read from the buffer now, at least one
+     */
+    private int available(int elements, int size) throws IOException {
+        long bytes = (long) elements * size;
+        if (buffer.remaining() < bytes) {
+            require((int) Math.min(bytes, buffer.capacity() - buffer.capacity() % size));
+        }
+        return (int) Math.min(elements, buffer.remaining() / size);
+    }
+
+    /**
+     * Arrays of this and all other primitive types are copied in bulk out of the buffer rather than one by one.
+     *
+     * @return The array, or {@code null} if a {@code null} array was written
+     */
+    public byte[] readByteArray() throws IOException {
+        int length = readArrayLength();
+        return length < 0 ? null : readBytes(length);
+    }
+
+    /**
+     * @see #readByteArray()
+     */
+    public boolean[] readBooleanArray() throws IOException {
+        int length = readArrayLength();
+        if (length < 0) {
+            return null;
+        }
+        boolean[] values = new boolean[length];
+        for (int offset = 0; offset < length; ) {
+            int count = available(length - offset, 1);
+            for (int i = 0; i < count; i++) {
+                values[offset++] = buffer.get() == 1;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @see #readByteArray()
+     */
+    public char[] readCharArray() throws IOException {
+        int length = readArrayLength();
+        if (length < 0) {
+            return null;
+        }
+        char[] values = new char[length];
+        for (int offset = 0; offset < length; ) {
+            int count = available(length - offset, Character.BYTES);
+            buffer.asCharBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Character.BYTES);
+            offset += count;
+        }
+        return values;
+    }
+
+    /**
+     * @see #readByteArray()
+     */
+    public short[] readShortArray() throws IOException {
+        int length = readArrayLength();
+        if (length < 0) {
+            return null;
+        }
+        short[] values = new short[length];
+        for (int offset = 0; offset < length; ) {
+            int count = available(length - offset, Short.BYTES);
+            buffer.asShortBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Short.BYTES);
+            offset += count;
+        }
+        return values;
+    }
+
+    /**
+     * @see #readByteArray()
+     */
+    public int[] readIntArray() throws IOException {
+        int length = readArrayLength();
+        if (length < 0) {
+            return null;
+        }
+        int[] values = new int[length];
+        if (compact) {
+            for (int i = 0; i < length; i++) {
+                values[i] = readInt();
+            }
+            return values;
+        }
+        for (int offset = 0; offset < length; ) {
+            int count = available(length - offset, Integer.BYTES);
+            buffer.asIntBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+        }
+        return values;
+    }
+
+    /**
+     * @see #readByteArray()
+     */
+    public long[] readLongArray() throws IOException {
+        int length = readArrayLength();
+        if (length < 0) {
+            return null;
+        }
+        long[] values = new long[length];
+        if (compact) {
+            for (int i = 0; i < length; i++) {
+                values[i] = readLong();
+            }
+            return values;
+        }
+        for (int offset = 0; offset < length; ) {
+            int count = available(length - offset, Long.BYTES);
+            buffer.asLongBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+        }
+        return values;
+    }
+
+    /**
+     * @see #readByteArray()
+     */
+    public float[] readFloatArray() throws IOException {
+        int length = readArrayLength();
+        if (length < 0) {
+            return null;
+        }
+        float[] values = new float[length];
+        for (int offset = 0; offset < length; ) {
+            int count = available(length - offset, Float.BYTES);
+            buffer.asFloatBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Float.BYTES);
+            offset += count;
+        }
+        return values;
+    }
+
+    /**
+     * @see #readByteArray()
+     */
+    public double[] readDoubleArray() throws IOException {
+        int length = readArrayLength();
+        if (length < 0) {
+            return null;
+        }
+        double[] values = new double[length];
+        for (int offset = 0; offset < length; ) {
+            int count = available(length - offset, Double.BYTES);
+            buffer.asDoubleBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Double.BYTES);
+            offset += count;
+        }
+        return values;
+    }
+
+    /**
+     * Reads the given amount of bytes into a new array, which may be larger than the buffer.
+     */
+    protected byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        readFully(bytes, 0, length);
+        return bytes;
+    }
+
+    /**
+     * Reads exactly the given amount of bytes into the array, which may be more than the buffer holds.
+     */
+    public void readFully(byte[] bytes, int offset, int length) throws IOException {
+        int buffered = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, buffered);
+        if (buffered < length) {
+            if (in == null && channel == null) {
+                throw new EOFException("Expected " + length + " bytes");
+            }
+            ByteBuffer rest = ByteBuffer.wrap(bytes, offset + buffered, length - buffered);
+            while (rest.hasRemaining()) {
+                if (readSource(rest) < 0) {
+                    throw new EOFException("Expected " + length + " bytes");
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads past the given amount of bytes without copying them anywhere, refilling the buffer as often as necessary.
+     */
+    public void skipBytes(long length) throws IOException {
+        while (length > buffer.remaining()) {
+            length -= buffer.remaining();
+            buffer.position(buffer.limit());
+            require((int) Math.min(length, buffer.capacity()));
+        }
+        buffer.position(buffer.position() + (int) length);
+    }
+
+    /**
+     * Reads past a value of the given type without decoding it or allocating anything.
+     * Deduplicated strings are the exception, they are still decoded as later occurrences may refer back to them.
+     *
+     * @throws IllegalArgumentException for arrays, collections, maps and objects, their encoding depends on what they
+     *                                  contain. Arrays of primitives can be skipped by {@link #skipArray(DataType)}.
+     */
+    public void skip(DataType type) throws IOException {
+        switch (type) {
+            case BOOLEAN, BYTE, CHAR, DOUBLE, FLOAT, SHORT -> skipBytes(type.getSize());
+            case INTEGER -> {
+                if (compact) {
+                    readVarInt();
+                } else {
+                    skipBytes(Integer.BYTES);
+                }
+            }
+            case LONG -> {
+                if (compact) {
+                    readVarLong();
+                } else {
+                    skipBytes(Long.BYTES);
+                }
+            }
+            case STRING -> {
+                if (strings != null) {
+                    readString();
+                } else {
+                    int length = compact ? readVarInt() : require(Integer.BYTES).getInt();
+                    if (length < 0) {
+                        throw new IOException("Invalid string length: " + length);
+                    }
+                    skipBytes(length);
+                }
+            }
+            default -> throw new IllegalArgumentException("Can not skip " + type + " without knowing what it contains");
+        }
+    }
+
+    /**
+     * Reads past an array written by {@link DataWriter#writeArray(int[])} or one of its siblings without allocating it.
+     *
+     * @param component The primitive type of the elements
+     */
+    public void skipArray(DataType component) throws IOException {
+        if (component.getSize() < 0) {
+            throw new IllegalArgumentException("Not a primitive: " + component);
+        }
+        int length = readArrayLength();
+        if (compact && (component == DataType.INTEGER || component == DataType.LONG)) {
+            for (int i = 0; i < length; i++) {
+                skip(component);
+            }
+        } else if (length > 0) {
+            skipBytes((long) length * component.getSize());
+        }
+    }
+
+    /**
+     * Moves to the given position of the byte array or buffer this reader was created with.
+     *
+     * @throws IllegalStateException when reading from a stream or channel
+     * @see #position()
+     */
+    void position(int position) {
+        if (in != null || channel != null) {
+            throw new IllegalStateException("Can not move within a stream");
+        }
+        buffer.position(position);
+    }
+
+    /**
+     * Blocks until at least one more byte is available or the end of the input is reached.
+     *
+     * @return Whether there is anything left to read
+     */
+    public boolean hasRemaining() throws IOException {
+        if (buffer.hasRemaining()) {
+            return true;
+        }
+        if (in == null && channel == null) {
+            return false;
+        }
+        buffer.clear();
+        try {
+            int read;
+            do {
+                read = readSource(buffer);
+            } while (read == 0);
+            return read > 0;
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    /**
+     * @return The amount of bytes consumed from the byte array or buffer this reader was created with,
+     * or the position within the internal buffer when reading from a stream
+     */
+    public int position() {
+        return buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        } else if (channel != null) {
+            channel.close();
+        }
+    }
+
+}
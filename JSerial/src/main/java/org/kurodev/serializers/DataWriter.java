@@ -0,0 +1,636 @@
+package org.kurodev.serializers;
+
+import org.kurodev.DataType;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encodes values big-endian into an internal buffer, which is only handed to the underlying stream or channel
+ * when it is full or on {@link #flush()}.
+ * Without either the buffer grows as needed and its content is available through {@link #toByteArray()},
+ * unless the writer was created for a fixed {@link ByteBuffer}.
+ * <p>
+ * In compact mode ints and longs are written as zigzag encoded varints and string lengths as unsigned varints,
+ * so small values only take a single byte.
+ *
+ * @see #writeVarInt(int)
+ */
+public class DataWriter extends Serializer implements Flushable {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final int INITIAL_MEMORY_SIZE = 256;
+    protected final OutputStream out;
+    private final WritableByteChannel channel;
+    private final boolean growable;
+    private ByteBuffer buffer;
+    private boolean compact;
+    private IdentityIntMap references;
+    private SchemaTable schemas;
+    private Map<String, Integer> strings;
+
+    /**
+     * Creates a writer that keeps everything in memory.
+     *
+     * @see #toByteArray()
+     */
+    DataWriter() {
+        this(null, null, ByteBuffer.allocate(INITIAL_MEMORY_SIZE), true);
+    }
+
+    /**
+     * @param out The output stream to write to
+     */
+    DataWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param out        The output stream to write to
+     * @param bufferSize The amount of bytes buffered before they are written to the stream
+     */
+    DataWriter(OutputStream out, int bufferSize) {
+        this(out, null, allocate(bufferSize), true);
+    }
+
+    /**
+     * @param channel    The channel to write to, expected to be blocking
+     * @param bufferSize The amount of bytes buffered before they are written to the channel
+     */
+    DataWriter(WritableByteChannel channel, int bufferSize) {
+        this(null, channel, allocate(bufferSize), true);
+    }
+
+    /**
+     * Writes straight into the remaining space of the given buffer, which is not modified otherwise.
+     * Values are always written big-endian, regardless of the byte order of the buffer.
+     *
+     * @param target The buffer to write into, may be direct
+     * @throws BufferOverflowException when writing more than the buffer can hold
+     * @see #size()
+     */
+    DataWriter(ByteBuffer target) {
+        this(null, null, target.slice().order(ByteOrder.BIG_ENDIAN), false);
+    }
+
+    /**
+     * Creates a writer around a buffer it takes over, e.g. one from a {@link BufferPool}.
+     * With neither a stream nor a channel everything is kept in memory.
+     *
+     * @param buffer   The cleared buffer to write into, it is replaced by a larger one if it has to grow
+     * @param growable Whether the buffer may grow, otherwise writing beyond it fails
+     * @see #getBuffer()
+     */
+    DataWriter(OutputStream out, WritableByteChannel channel, ByteBuffer buffer, boolean growable) {
+        this.out = out;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.growable = growable;
+    }
+
+    /**
+     * @param compact Whether ints, longs and string lengths are written as varints
+     */
+    void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * @param references The objects seen so far while reference tracking, or {@code null} if it is disabled
+     */
+    void setReferences(IdentityIntMap references) {
+        this.references = references;
+    }
+
+    IdentityIntMap getReferences() {
+        return references;
+    }
+
+    /**
+     * @param schemas The schemas of the stream, or {@code null} if they are not written
+     */
+    void setSchemas(SchemaTable schemas) {
+        this.schemas = schemas;
+    }
+
+    SchemaTable getSchemas() {
+        return schemas;
+    }
+
+    /**
+     * @param strings The strings written so far with their index, or {@code null} if strings are not deduplicated
+     */
+    void setStrings(Map<String, Integer> strings) {
+        this.strings = strings;
+    }
+
+    Map<String, Integer> getStrings() {
+        return strings;
+    }
+
+    private static ByteBuffer allocate(int bufferSize) {
+        if (bufferSize < Long.BYTES) {
+            throw new IllegalArgumentException("Buffer size must be at least " + Long.BYTES);
+        }
+        return ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Makes room for at least the given amount of bytes, by draining the buffer into the stream or by growing it.
+     */
+    private ByteBuffer ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+            if (buffer.remaining() < bytes) {
+                if (!growable) {
+                    throw new BufferOverflowException();
+                }
+                grow(bytes);
+            }
+        }
+        return buffer;
+    }
+
+    private void grow(int bytes) {
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+
+    private void drain() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        if (out != null) {
+            out.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+            buffer.clear();
+        } else if (channel != null) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    public void write(boolean bool) throws IOException {
+        ensure(1).put(bool ? (byte) 1 : (byte) 0);
+    }
+
+    public void writeByte(int wByte) throws IOException {
+        if (wByte > Byte.MAX_VALUE || wByte < Byte.MIN_VALUE) {
+            //either do this, or just write only the first 8 bits.
+            throw new IllegalArgumentException("Byte value must be between 127 and -128");
+        }
+        ensure(Byte.BYTES).put((byte) wByte);
+    }
+
+    public void write(char val) throws IOException {
+        ensure(Character.BYTES).putChar(val);
+    }
+
+    public void write(double val) throws IOException {
+        ensure(Double.BYTES).putDouble(val);
+    }
+
+    public void write(float val) throws IOException {
+        ensure(Float.BYTES).putFloat(val);
+    }
+
+    /**
+     * Writes integer value as 4 bytes, or as 1 to 5 bytes in compact mode
+     *
+     * @param val Integer to write
+     * @apiNote to write only a byte value use {@link #writeByte(int)}
+     */
+    public void write(int val) throws IOException {
+        if (compact) {
+            writeVarInt((val << 1) ^ (val >> 31));
+        } else {
+            ensure(Integer.BYTES).putInt(val);
+        }
+    }
+
+    public void write(long val) throws IOException {
+        if (compact) {
+            writeVarLong((val << 1) ^ (val >> 63));
+        } else {
+            ensure(Long.BYTES).putLong(val);
+        }
+    }
+
+    /**
+     * Writes the value as an unsigned LEB128 varint, 7 bits per byte with the highest bit set on all but the last.
+     * Negative values always take 5 bytes.
+     */
+    public void writeVarInt(int val) throws IOException {
+        ByteBuffer buffer = ensure(5);
+        while ((val & ~0x7F) != 0) {
+            buffer.put((byte) ((val & 0x7F) | 0x80));
+            val >>>= 7;
+        }
+        buffer.put((byte) val);
+    }
+
+    /**
+     * @see #writeVarInt(int)
+     */
+    public void writeVarLong(long val) throws IOException {
+        ByteBuffer buffer = ensure(10);
+        while ((val & ~0x7FL) != 0) {
+            buffer.put((byte) ((val & 0x7F) | 0x80));
+            val >>>= 7;
+        }
+        buffer.put((byte) val);
+    }
+
+    public void write(short val) throws IOException {
+        ensure(Short.BYTES).putShort(val);
+    }
+
+    /**
+     * Writes the length of an array, followed by its elements.
+     *
+     * @param length The length of the array, or -1 if it is {@code null}
+     */
+    public void writeArrayLength(int length) throws IOException {
+        write(length);
+    }
+
+    /**
+     * @return Whether there are elements to write
+     */
+    private boolean writeArrayLength(Object array, int length) throws IOException {
+        writeArrayLength(array == null ? -1 : length);
+        return array != null;
+    }
+
+    /**
+     * Makes room for as many elements of the given size as possible, draining the buffer if necessary.
+     * An in-memory buffer grows to hold all of them.
+     *
+     * @return The amount of elements that fit into the buffer now, at least one
+     */
+    private int reserve(int elements, int size) throws IOException {
+        long bytes = (long) elements * size;
+        if (buffer.remaining() < bytes) {
+            drain();
+            if (out == null && channel == null) {
+                ensure((int) Math.min(bytes, Integer.MAX_VALUE - size));
+            }
+        }
+        return Math.min(elements, buffer.remaining() / size);
+    }
+
+    /**
+     * Writes the elements as one block, their length is written in front.
+     * Arrays of this and all other primitive types are copied in bulk into the buffer rather than one by one.
+     *
+     * @param values The array to write, may be {@code null}
+     */
+    public void writeArray(byte[] values) throws IOException {
+        if (writeArrayLength(values, values == null ? 0 : values.length)) {
+            writeBytes(values, 0, values.length);
+        }
+    }
+
+    /**
+     * @see #writeArray(byte[])
+     */
+    public void writeArray(boolean[] values) throws IOException {
+        if (writeArrayLength(values, values == null ? 0 : values.length)) {
+            for (int offset = 0; offset < values.length; ) {
+                int count = reserve(values.length - offset, 1);
+                for (int i = 0; i < count; i++) {
+                    buffer.put(values[offset++] ? (byte) 1 : (byte) 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * @see #writeArray(byte[])
+     */
+    public void writeArray(char[] values) throws IOException {
+        if (writeArrayLength(values, values == null ? 0 : values.length)) {
+            for (int offset = 0; offset < values.length; ) {
+                int count = reserve(values.length - offset, Character.BYTES);
+                buffer.asCharBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Character.BYTES);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * @see #writeArray(byte[])
+     */
+    public void writeArray(short[] values) throws IOException {
+        if (writeArrayLength(values, values == null ? 0 : values.length)) {
+            for (int offset = 0; offset < values.length; ) {
+                int count = reserve(values.length - offset, Short.BYTES);
+                buffer.asShortBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Short.BYTES);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * In compact mode the elements are written one by one as varints.
+     *
+     * @see #writeArray(byte[])
+     */
+    public void writeArray(int[] values) throws IOException {
+        if (writeArrayLength(values, values == null ? 0 : values.length)) {
+            if (compact) {
+                for (int value : values) {
+                    write(value);
+                }
+                return;
+            }
+            for (int offset = 0; offset < values.length; ) {
+                int count = reserve(values.length - offset, Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * In compact mode the elements are written one by one as varints.
+     *
+     * @see #writeArray(byte[])
+     */
+    public void writeArray(long[] values) throws IOException {
+        if (writeArrayLength(values, values == null ? 0 : values.length)) {
+            if (compact) {
+                for (long value : values) {
+                    write(value);
+                }
+                return;
+            }
+            for (int offset = 0; offset < values.length; ) {
+                int count = reserve(values.length - offset, Long.BYTES);
+                buffer.asLongBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * @see #writeArray(byte[])
+     */
+    public void writeArray(float[] values) throws IOException {
+        if (writeArrayLength(values, values == null ? 0 : values.length)) {
+            for (int offset = 0; offset < values.length; ) {
+                int count = reserve(values.length - offset, Float.BYTES);
+                buffer.asFloatBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Float.BYTES);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * @see #writeArray(byte[])
+     */
+    public void writeArray(double[] values) throws IOException {
+        if (writeArrayLength(values, values == null ? 0 : values.length)) {
+            for (int offset = 0; offset < values.length; ) {
+                int count = reserve(values.length - offset, Double.BYTES);
+                buffer.asDoubleBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * Writes the length of the string in UTF-8 followed by its UTF-8 bytes, encoded straight into the buffer.
+     * When strings are deduplicated, each is preceded by a varint, 0 for a string that follows,
+     * otherwise the index of an earlier string + 1.
+     */
+    public void write(String val) throws IOException {
+        if (strings != null) {
+            Integer index = strings.putIfAbsent(val, strings.size());
+            if (index != null) {
+                writeVarInt(index + 1);
+                return;
+            }
+            writeVarInt(0);
+        }
+        writePlain(val);
+    }
+
+    /**
+     * Writes a string that is never deduplicated.
+     */
+    void writePlain(String val) throws IOException {
+        int length = val.length();
+        int utf8 = utf8Length(val);
+        writeLength(utf8);
+        if (utf8 > buffer.capacity() && (out != null || channel != null)) {
+            writeBytes(val.getBytes(StandardCharsets.UTF_8), 0, utf8);
+            return;
+        }
+        ByteBuffer target = ensure(utf8);
+        int ascii = 0;
+        if (target.hasArray()) {
+            //ascii chars are a single byte each, copy them straight into the array until the first other one
+            byte[] array = target.array();
+            int offset = target.arrayOffset() + target.position();
+            for (char c; ascii < length && (c = val.charAt(ascii)) < 0x80; ascii++) {
+                array[offset + ascii] = (byte) c;
+            }
+            target.position(target.position() + ascii);
+        }
+        if (ascii < length) {
+            encodeUtf8(val, ascii, target);
+        }
+    }
+
+    /**
+     * @return The amount of bytes the string takes up in UTF-8,
+     * unpaired surrogates count as the single byte of the {@code ?} they are replaced with
+     */
+    static int utf8Length(String val) {
+        int length = val.length();
+        int utf8 = length;
+        for (int i = 0; i < length; i++) {
+            char c = val.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    utf8++;
+                } else if (!Character.isSurrogate(c)) {
+                    utf8 += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(val.charAt(i + 1))) {
+                    //two chars, four bytes
+                    utf8 += 2;
+                    i++;
+                }
+            }
+        }
+        return utf8;
+    }
+
+    /**
+     * Encodes like {@link String#getBytes(java.nio.charset.Charset)}, which the target must have room for.
+     *
+     * @param from The index of the first char to encode
+     */
+    private static void encodeUtf8(String val, int from, ByteBuffer target) {
+        int length = val.length();
+        for (int i = from; i < length; i++) {
+            char c = val.charAt(i);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | c >> 6));
+                target.put((byte) (0x80 | c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                target.put((byte) (0xE0 | c >> 12));
+                target.put((byte) (0x80 | c >> 6 & 0x3F));
+                target.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(val.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, val.charAt(++i));
+                target.put((byte) (0xF0 | codePoint >> 18));
+                target.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                target.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                target.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                target.put((byte) '?');
+            }
+        }
+    }
+
+    public void write(DataType type, byte... bytes) throws IOException {
+        if (type == DataType.STRING) {
+            writeLength(bytes.length);
+        }
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void writeLength(int length) throws IOException {
+        if (compact) {
+            writeVarInt(length);
+        } else {
+            ensure(Integer.BYTES).putInt(length);
+        }
+    }
+
+    /**
+     * Writes the given bytes as they are, bypassing the buffer if they would not fit into it anyway.
+     */
+    protected void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.capacity() && (out != null || channel != null)) {
+            drain();
+            if (out != null) {
+                out.write(bytes, offset, length);
+            } else {
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes, offset, length);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            }
+            return;
+        }
+        ensure(length).put(bytes, offset, length);
+    }
+
+    /**
+     * Writes the bytes currently held in the buffer of this writer to another writer.
+     */
+    void writeTo(DataWriter other) throws IOException {
+        if (buffer.hasArray()) {
+            other.writeBytes(buffer.array(), buffer.arrayOffset(), buffer.position());
+        } else {
+            other.writeBytes(toByteArray(), 0, buffer.position());
+        }
+    }
+
+    /**
+     * Skips an int to be filled in by {@link #putInt(int, int)} once its value is known, e.g. a length.
+     * The int is always 4 bytes, even in compact mode. Only for writers that keep everything in memory.
+     *
+     * @return The position of the int
+     */
+    int reserveInt() throws IOException {
+        int position = ensure(Integer.BYTES).position();
+        buffer.position(position + Integer.BYTES);
+        return position;
+    }
+
+    /**
+     * Fills in an int reserved by {@link #reserveInt()}.
+     */
+    void putInt(int position, int value) {
+        buffer.putInt(position, value);
+    }
+
+    /**
+     * @return The amount of bytes currently held in the buffer
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    /**
+     * @return The buffer currently written into, which may have replaced the one the writer was created with
+     */
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return A copy of the bytes currently held in the buffer
+     */
+    public byte[] toByteArray() {
+        if (!buffer.hasArray()) {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.duplicate().flip().get(bytes);
+            return bytes;
+        }
+        return Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(), buffer.arrayOffset() + buffer.position());
+    }
+
+    /**
+     * Discards the content of the buffer, so the writer can be reused.
+     */
+    public void reset() {
+        buffer.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (out != null) {
+            out.close();
+        } else if (channel != null) {
+            channel.close();
+        }
+    }
+}
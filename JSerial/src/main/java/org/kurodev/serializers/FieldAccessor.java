@@ -0,0 +1,228 @@
+package org.kurodev.serializers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes a single field through {@link MethodHandle}s with primitive-specialized signatures,
+ * so primitive fields are copied without being boxed.
+ * <p>
+ * The primitive getters and setters must only be used with a field of exactly that primitive type,
+ * everything else (including wrapper types) goes through {@link #get(Object)}/{@link #set(Object, Object)}.
+ * Those box primitives, so the serializer only calls them for fields that are not {@link #isPrimitive() primitive}.
+ * <p>
+ * The handles are held per instance rather than in static finals, the JIT inlines them once a call site only ever
+ * sees one accessor but can not constant-fold them. {@link ObjectSerializer.Mode#GENERATED} accesses fields directly.
+ */
+public final class FieldAccessor {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private final Field field;
+    private final boolean primitive;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    /**
+     * @param field The instance field to access, must already be accessible
+     */
+    FieldAccessor(Field field) {
+        this.field = field;
+        Class<?> type = field.getType();
+        this.primitive = type.isPrimitive();
+        //only adapt primitive fields, references are accessed as Object
+        Class<?> accessType = primitive ? type : Object.class;
+        try {
+            MethodHandle get = LOOKUP.unreflectGetter(field);
+            MethodHandle set = field.getDeclaringClass().isRecord() ? recordSetter(field) : LOOKUP.unreflectSetter(field);
+            getter = get.asType(MethodType.methodType(accessType, Object.class));
+            setter = set.asType(MethodType.methodType(void.class, Object.class, accessType));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Field " + field + " is not accessible", e);
+        }
+    }
+
+    /**
+     * The fields of records are final for good, they are only ever set through the canonical constructor.
+     */
+    private static MethodHandle recordSetter(Field field) {
+        MethodHandle fail = MethodHandles.throwException(void.class, UnsupportedOperationException.class)
+                .bindTo(new UnsupportedOperationException("Record components are set through the constructor: " + field));
+        return MethodHandles.dropArguments(fail, 0, field.getDeclaringClass(), field.getType());
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException e) {
+            return e;
+        }
+        if (t instanceof Error e) {
+            throw e;
+        }
+        return new IllegalStateException(t);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return Whether the primitive getters and setters may be used with this field
+     */
+    public boolean isPrimitive() {
+        return primitive;
+    }
+
+    /**
+     * Boxes the value of primitive fields, which are read through the primitive getters instead wherever it matters.
+     */
+    public Object get(Object obj) {
+        try {
+            return primitive ? getter.invoke(obj) : (Object) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Unboxes the value for primitive fields, which are written through the primitive setters instead wherever it matters.
+     */
+    public void set(Object obj, Object value) {
+        try {
+            if (primitive) {
+                setter.invoke(obj, value);
+            } else {
+                setter.invokeExact(obj, value);
+            }
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public boolean getBoolean(Object obj) {
+        try {
+            return (boolean) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setBoolean(Object obj, boolean value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public byte getByte(Object obj) {
+        try {
+            return (byte) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setByte(Object obj, byte value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public char getChar(Object obj) {
+        try {
+            return (char) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setChar(Object obj, char value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public short getShort(Object obj) {
+        try {
+            return (short) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setShort(Object obj, short value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public int getInt(Object obj) {
+        try {
+            return (int) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setInt(Object obj, int value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public long getLong(Object obj) {
+        try {
+            return (long) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setLong(Object obj, long value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public float getFloat(Object obj) {
+        try {
+            return (float) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setFloat(Object obj, float value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public double getDouble(Object obj) {
+        try {
+            return (double) getter.invokeExact(obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public void setDouble(Object obj, double value) {
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.kurodev.serializers;
+
+import org.kurodev.DataType;
+
+import java.lang.reflect.Field;
+
+/**
+ * A single serializable field of a {@link ClassPlan}, resolved once when the plan is built.
+ * The underlying {@link Field} is already made accessible and wrapped in a {@link FieldAccessor}.
+ */
+public final class FieldPlan {
+    private final Field field;
+    private final TypeDescriptor descriptor;
+    private final FieldAccessor accessor;
+    private final int component;
+
+    FieldPlan(Field field) {
+        this(field, -1);
+    }
+
+    /**
+     * @param component The index of the record component the field belongs to
+     */
+    FieldPlan(Field field, int component) {
+        this.field = field;
+        this.component = component;
+        this.descriptor = TypeDescriptor.of(field);
+        field.setAccessible(true);
+        this.accessor = new FieldAccessor(field);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return The position of the field in the canonical constructor of its record, or -1 if it is no record component
+     */
+    public int getComponent() {
+        return component;
+    }
+
+    public String getName() {
+        return field.getName();
+    }
+
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    public DataType getDataType() {
+        return descriptor.getDataType();
+    }
+
+    /**
+     * @return The declared type of the field, including the types of the elements it holds
+     */
+    public TypeDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    @Override
+    public String toString() {
+        return field.getName() + ":" + descriptor.getDataType();
+    }
+}
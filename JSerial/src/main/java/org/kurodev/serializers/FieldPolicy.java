@@ -0,0 +1,24 @@
+package org.kurodev.serializers;
+
+import org.kurodev.serializers.exception.Exclude;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Decides which fields of a class are serialized, once when its {@link ClassPlan} is built.
+ * Static and synthetic fields are never serialized, whatever the policy.
+ */
+@FunctionalInterface
+public interface FieldPolicy {
+    /**
+     * Skips fields annotated with {@link Exclude} and {@code transient} fields.
+     */
+    FieldPolicy DEFAULT = field -> !field.isAnnotationPresent(Exclude.class) && !Modifier.isTransient(field.getModifiers());
+    /**
+     * Only skips fields annotated with {@link Exclude}, {@code transient} fields are serialized like any other.
+     */
+    FieldPolicy INCLUDE_TRANSIENT = field -> !field.isAnnotationPresent(Exclude.class);
+
+    boolean isSerialized(Field field);
+}
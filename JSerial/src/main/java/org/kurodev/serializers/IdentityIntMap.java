@@ -0,0 +1,90 @@
+package org.kurodev.serializers;
+
+import java.util.Arrays;
+
+/**
+ * Maps objects by identity to ints, using open addressing with linear probing on {@link System#identityHashCode(Object)}.
+ * Unlike {@link java.util.IdentityHashMap} nothing is boxed and no entries are allocated.
+ * Entries can not be removed individually, only all at once.
+ */
+final class IdentityIntMap {
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Tables that grew beyond this are dropped on {@link #clear()} instead of being wiped, so one large graph
+     * does not make clearing expensive for all following ones.
+     */
+    private static final int RETAINED_CAPACITY = 1 << 12;
+    private Object[] keys;
+    private int[] values;
+    private int size;
+
+    IdentityIntMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+    }
+
+    private static int hash(Object key) {
+        int h = System.identityHashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return The value the key is mapped to, or -1 if it was not mapped yet and now is mapped to the given value
+     */
+    int putIfAbsent(Object key, int value) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        Object current;
+        while ((current = keys[index]) != null) {
+            if (current == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        //kept at most half full, so probe sequences stay short
+        if (++size > keys.length >> 1) {
+            resize();
+        }
+        return -1;
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key != null) {
+                int index = hash(key) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (size == 0) {
+            return;
+        }
+        if (keys.length > RETAINED_CAPACITY) {
+            allocate(INITIAL_CAPACITY);
+        } else {
+            Arrays.fill(keys, null);
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,479 @@
+package org.kurodev.serializers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousByteChannel;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes objects asynchronously as the frames of an {@link ObjectWriter}, so they can be read back by an {@link ObjectReader}.
+ * Submitted objects are serialized by tasks of a worker executor and the finished frames are gathered into batches
+ * of up to {@link #BATCH_SIZE} bytes, each handed to the target in a single non-blocking write.
+ * Frames are written in the order the objects were submitted, the future returned for each object completes once
+ * its frame has been written.
+ * <p>
+ * At most {@code capacity} objects are pending at a time, until they are written {@link #submit(Object)} waits and
+ * {@link #offer(Object)} refuses further objects. Waiting parks a virtual thread rather than blocking its carrier.
+ * <p>
+ * With schema evolution the schemas are numbered across the whole stream, so objects are then serialized one after
+ * another by whichever thread gathers the next batch instead of by the workers.
+ */
+public class ObjectPipeline implements AutoCloseable {
+    /**
+     * Frames are gathered until a batch holds at least this many bytes, a single frame may exceed it.
+     */
+    public static final int BATCH_SIZE = 64 * 1024;
+    private final ObjectSerializer serializer;
+    private final Target target;
+    private final Executor workers;
+    private final Semaphore permits;
+    private final DataWriter frame;
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean completing = new AtomicBoolean();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile boolean shutdown;
+    private volatile Throwable failure;
+    private volatile long count;
+
+    /**
+     * @param serializer The serializer used to write the objects
+     * @param channel    The channel to write to, e.g. an {@link java.nio.channels.AsynchronousSocketChannel}
+     * @param workers    Runs the tasks serializing the objects
+     * @param capacity   The amount of objects pending at most
+     */
+    public ObjectPipeline(ObjectSerializer serializer, AsynchronousByteChannel channel, Executor workers, int capacity) {
+        this(serializer, new ChannelTarget(channel), workers, capacity);
+    }
+
+    /**
+     * @param serializer The serializer used to write the objects
+     * @param channel    The file to write to
+     * @param position   The position in the file the first frame is written at
+     * @param workers    Runs the tasks serializing the objects
+     * @param capacity   The amount of objects pending at most
+     */
+    public ObjectPipeline(ObjectSerializer serializer, AsynchronousFileChannel channel, long position, Executor workers, int capacity) {
+        this(serializer, new FileTarget(channel, position), workers, capacity);
+    }
+
+    /**
+     * Publishes the batches to a subscriber instead, each as a {@link ByteBuffer} the subscriber takes over.
+     * No more batches are published than the subscriber requested, objects stay pending until it requests more.
+     * The subscriber is completed when the pipeline is {@link #shutdown() shut down}.
+     *
+     * @param serializer The serializer used to write the objects
+     * @param subscriber Receives the batches
+     * @param workers    Runs the tasks serializing the objects
+     * @param capacity   The amount of objects pending at most
+     */
+    public ObjectPipeline(ObjectSerializer serializer, Flow.Subscriber<? super ByteBuffer> subscriber, Executor workers, int capacity) {
+        this(serializer, new SubscriberTarget(subscriber), workers, capacity);
+    }
+
+    private ObjectPipeline(ObjectSerializer serializer, Target target, Executor workers, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.serializer = serializer;
+        this.target = target;
+        this.workers = workers;
+        this.permits = new Semaphore(capacity);
+        this.frame = serializer.isSchemaEvolution() ? serializer.configure(new DataWriter()) : null;
+        target.start();
+    }
+
+    /**
+     * Queues the object to be written, waiting while the pipeline is at capacity.
+     *
+     * @return Completes once the object has been written, or exceptionally if it could not be serialized or written
+     * @throws IllegalStateException if the pipeline has been shut down
+     */
+    public CompletableFuture<Void> submit(Object obj) throws InterruptedException {
+        Objects.requireNonNull(obj);
+        permits.acquire();
+        return enqueue(obj);
+    }
+
+    /**
+     * Queues the object to be written, unless the pipeline is at capacity.
+     *
+     * @return Completes once the object has been written, or {@code null} if the pipeline is at capacity
+     * @throws IllegalStateException if the pipeline has been shut down
+     * @see #submit(Object)
+     */
+    public CompletableFuture<Void> offer(Object obj) {
+        Objects.requireNonNull(obj);
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        return enqueue(obj);
+    }
+
+    private CompletableFuture<Void> enqueue(Object obj) {
+        Entry entry;
+        synchronized (entries) {
+            if (shutdown) {
+                permits.release();
+                throw new IllegalStateException("Pipeline has been shut down");
+            }
+            //the queue decides the order of the frames, the workers may finish them in any order
+            entry = new Entry(obj, frame != null ? null : CompletableFuture.supplyAsync(() -> {
+                try {
+                    return serializer.writeFrame(obj);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, workers));
+            entries.add(entry);
+        }
+        if (entry.frame != null) {
+            entry.frame.whenComplete((frame, e) -> drain());
+        } else {
+            drain();
+        }
+        return entry.written;
+    }
+
+    /**
+     * Hands the serialized objects at the head of the queue to the target as one batch, unless a batch is already
+     * being written. The next batch is started once the target finished writing the previous one.
+     */
+    private void drain() {
+        while (draining.compareAndSet(false, true)) {
+            List<Entry> batch = new ArrayList<>();
+            List<byte[]> frames = new ArrayList<>();
+            int size = 0;
+            for (Entry head = entries.peek(); head != null && head.isSerialized() && size < BATCH_SIZE; head = entries.peek()) {
+                entries.poll();
+                try {
+                    if (failure != null) {
+                        throw new CompletionException(failure);
+                    }
+                    byte[] bytes = head.frame != null ? head.frame.join() : writeFrame(head.obj);
+                    batch.add(head);
+                    frames.add(bytes);
+                    size += bytes.length;
+                } catch (RuntimeException | IOException e) {
+                    permits.release();
+                    head.written.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                }
+            }
+            if (!batch.isEmpty()) {
+                ByteBuffer buffer = ByteBuffer.allocate(size);
+                frames.forEach(buffer::put);
+                //continuing on a worker keeps targets that complete right away from recursing into the next batch
+                target.write(buffer.flip()).whenCompleteAsync((result, e) -> {
+                    if (e != null && failure == null) {
+                        failure = e;
+                    }
+                    for (Entry entry : batch) {
+                        if (e != null) {
+                            entry.written.completeExceptionally(e);
+                        } else {
+                            entry.written.complete(null);
+                        }
+                    }
+                    if (e == null) {
+                        count += batch.size();
+                    }
+                    permits.release(batch.size());
+                    draining.set(false);
+                    drain();
+                }, workers);
+                return;
+            }
+            draining.set(false);
+            Entry head = entries.peek();
+            if (head == null || !head.isSerialized()) {
+                //the next entry triggers another drain once it is serialized
+                if (head == null && shutdown) {
+                    complete();
+                }
+                return;
+            }
+        }
+    }
+
+    private byte[] writeFrame(Object obj) throws IOException {
+        //only one thread drains at a time, so the frame and its schema table are never shared
+        frame.reset();
+        int length = frame.reserveInt();
+        serializer.write(obj, frame, 0);
+        frame.putInt(length, frame.size() - Integer.BYTES);
+        return frame.toByteArray();
+    }
+
+    private void complete() {
+        if (!entries.isEmpty() || draining.get() || !completing.compareAndSet(false, true)) {
+            return;
+        }
+        target.complete(failure);
+        if (failure != null) {
+            completion.completeExceptionally(failure);
+        } else {
+            completion.complete(null);
+        }
+    }
+
+    /**
+     * Stops accepting objects. The objects submitted so far are still written.
+     *
+     * @return Completes once all submitted objects have been written, exceptionally if the target failed
+     */
+    public CompletableFuture<Void> shutdown() {
+        synchronized (entries) {
+            shutdown = true;
+        }
+        drain();
+        return completion;
+    }
+
+    /**
+     * @return The amount of objects written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The amount of objects submitted but not yet written
+     */
+    public int getPending() {
+        return entries.size();
+    }
+
+    /**
+     * {@link #shutdown() Shuts down} the pipeline, waits for all submitted objects to be written and closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            shutdown().join();
+        } catch (CompletionException e) {
+            throw new IOException("Pipeline failed", e.getCause());
+        } finally {
+            target.close();
+        }
+    }
+
+    private static final class Entry {
+        private final Object obj;
+        private final CompletableFuture<byte[]> frame;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        /**
+         * @param frame The serialized object, or {@code null} to serialize it while draining
+         */
+        private Entry(Object obj, CompletableFuture<byte[]> frame) {
+            this.obj = obj;
+            this.frame = frame;
+        }
+
+        private boolean isSerialized() {
+            return frame == null || frame.isDone();
+        }
+    }
+
+    /**
+     * Where the batches go. Only one batch is written at a time.
+     */
+    private interface Target {
+        default void start() {
+        }
+
+        /**
+         * @return Completes once the whole batch has been written
+         */
+        CompletableFuture<Void> write(ByteBuffer batch);
+
+        /**
+         * Called once after the last batch.
+         *
+         * @param failure Why writing a batch failed, or {@code null}
+         */
+        default void complete(Throwable failure) {
+        }
+
+        void close() throws IOException;
+    }
+
+    private static final class ChannelTarget implements Target, CompletionHandler<Integer, CompletableFuture<Void>> {
+        private final AsynchronousByteChannel channel;
+        private ByteBuffer batch;
+
+        private ChannelTarget(AsynchronousByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public CompletableFuture<Void> write(ByteBuffer batch) {
+            CompletableFuture<Void> written = new CompletableFuture<>();
+            this.batch = batch;
+            channel.write(batch, written, this);
+            return written;
+        }
+
+        @Override
+        public void completed(Integer bytes, CompletableFuture<Void> written) {
+            //channels may write only part of the batch at once
+            if (batch.hasRemaining()) {
+                channel.write(batch, written, this);
+            } else {
+                written.complete(null);
+            }
+        }
+
+        @Override
+        public void failed(Throwable e, CompletableFuture<Void> written) {
+            written.completeExceptionally(e);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class FileTarget implements Target, CompletionHandler<Integer, CompletableFuture<Void>> {
+        private final AsynchronousFileChannel channel;
+        private long position;
+        private ByteBuffer batch;
+
+        private FileTarget(AsynchronousFileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public CompletableFuture<Void> write(ByteBuffer batch) {
+            CompletableFuture<Void> written = new CompletableFuture<>();
+            this.batch = batch;
+            channel.write(batch, position, written, this);
+            return written;
+        }
+
+        @Override
+        public void completed(Integer bytes, CompletableFuture<Void> written) {
+            position += bytes;
+            if (batch.hasRemaining()) {
+                channel.write(batch, position, written, this);
+            } else {
+                written.complete(null);
+            }
+        }
+
+        @Override
+        public void failed(Throwable e, CompletableFuture<Void> written) {
+            written.completeExceptionally(e);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class SubscriberTarget implements Target, Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private long demand;
+        private boolean cancelled;
+        private ByteBuffer pending;
+        private CompletableFuture<Void> written;
+
+        private SubscriberTarget(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void start() {
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public CompletableFuture<Void> write(ByteBuffer batch) {
+            synchronized (this) {
+                if (cancelled) {
+                    return CompletableFuture.failedFuture(new CancellationException("Subscription has been cancelled"));
+                }
+                if (demand == 0) {
+                    //published once the subscriber requests more
+                    pending = batch;
+                    written = new CompletableFuture<>();
+                    return written;
+                }
+                demand--;
+            }
+            subscriber.onNext(batch);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void request(long n) {
+            ByteBuffer batch;
+            CompletableFuture<Void> published;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException("Requested " + n + " batches"));
+                    return;
+                }
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                if (pending == null) {
+                    return;
+                }
+                batch = pending;
+                published = written;
+                pending = null;
+                written = null;
+                demand--;
+            }
+            subscriber.onNext(batch);
+            published.complete(null);
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            if (pending != null) {
+                pending = null;
+                written.completeExceptionally(new CancellationException("Subscription has been cancelled"));
+                written = null;
+            }
+        }
+
+        @Override
+        public void complete(Throwable failure) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+            }
+            if (failure != null) {
+                subscriber.onError(failure);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
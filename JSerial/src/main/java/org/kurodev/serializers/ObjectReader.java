@@ -0,0 +1,152 @@
+package org.kurodev.serializers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the frames written by an {@link ObjectWriter} one at a time, so arbitrarily long streams
+ * can be processed in constant memory.
+ */
+public class ObjectReader implements Closeable {
+    private static final int INITIAL_FRAME_SIZE = 256;
+    private final ObjectSerializer serializer;
+    private final DataReader in;
+    private final SchemaTable schemas;
+    private byte[] frame = new byte[INITIAL_FRAME_SIZE];
+    private long count;
+
+    /**
+     * @param serializer The serializer used to read the objects
+     * @param in         The stream to read from
+     */
+    public ObjectReader(ObjectSerializer serializer, InputStream in) {
+        this(serializer, new DataReader(in));
+    }
+
+    /**
+     * @param serializer The serializer used to read the objects
+     * @param channel    The blocking channel to read from
+     */
+    public ObjectReader(ObjectSerializer serializer, ReadableByteChannel channel) {
+        this(serializer, new DataReader(channel, DataReader.DEFAULT_BUFFER_SIZE));
+    }
+
+    ObjectReader(ObjectSerializer serializer, DataReader in) {
+        this.serializer = serializer;
+        this.in = in;
+        //the frames are read separately, but share the schemas of the stream
+        this.schemas = serializer.newSchemaTable();
+    }
+
+    /**
+     * Blocks until the next frame starts or the stream ends.
+     *
+     * @return Whether there is another object to read
+     */
+    public boolean hasNext() throws IOException {
+        return in.hasRemaining();
+    }
+
+    /**
+     * Reads the next frame into the reused frame buffer.
+     *
+     * @return The length of the frame
+     */
+    private int readFrame() throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        if (length > frame.length) {
+            frame = Arrays.copyOf(frame, Math.max(length, frame.length * 2));
+        }
+        in.readFully(frame, 0, length);
+        count++;
+        return length;
+    }
+
+    /**
+     * @param type The class of the next object
+     * @return The next object
+     * @throws java.io.EOFException if the stream ended
+     */
+    public <T> T read(Class<T> type) throws IOException {
+        return serializer.read(frameReader(readFrame()), type, 0);
+    }
+
+    private DataReader frameReader(int length) {
+        DataReader reader = serializer.configure(new DataReader(ByteBuffer.wrap(frame, 0, length)));
+        reader.setSchemas(schemas);
+        return reader;
+    }
+
+    /**
+     * Skips the next object without deserializing it, only the schemas it introduces are read.
+     */
+    public void skip() throws IOException {
+        int length = readFrame();
+        if (schemas != null) {
+            serializer.readSchemas(frameReader(length));
+        }
+    }
+
+    /**
+     * @return The amount of objects read or skipped so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Lazily iterates the remaining objects, which must all be of the same class.
+     * {@link IOException}s are rethrown as {@link UncheckedIOException}.
+     */
+    public <T> Iterator<T> iterator(Class<T> type) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return ObjectReader.this.hasNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return read(type);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @see #iterator(Class)
+     */
+    public <T> Stream<T> stream(Class<T> type) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(type),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
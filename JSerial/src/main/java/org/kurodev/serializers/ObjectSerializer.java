@@ -0,0 +1,1515 @@
+package org.kurodev.serializers;
+
+import org.kurodev.DataType;
+import org.kurodev.serializers.exception.FailHandler;
+import org.kurodev.serializers.exception.RecursiveDebthException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+/**
+ * Writes objects and reads them back through the cached {@link ClassPlan} of each class,
+ * configured through its {@link #builder()}.
+ * <p>
+ * An ObjectSerializer is thread-safe and meant to be shared, e.g. one instance for all request threads.
+ * Its configuration is fixed once built, plans, instantiators and generated serializers are cached per class in
+ * concurrent maps, and the state of a single write or read lives in its {@link DataWriter} or {@link DataReader}.
+ * The buffers of {@link #write(Object)} and of writing to or reading from streams and channels come from a bounded
+ * pool shared by all threads, so the allocation rate stays flat no matter how many threads use the instance.
+ * A {@link DataWriter} or {@link DataReader} itself must only be used by one thread at a time.
+ */
+public class ObjectSerializer {
+    public static final int DEFAULT_MAX_DEBTH = 15;
+    private static final Logger logger = LoggerFactory.getLogger(ObjectSerializer.class);
+    private final FailHandler<Exception> failHandler;
+    private final int maxDebth;
+    private final Mode mode;
+    private final boolean compiledSerializers;
+    private final boolean compact;
+    private final boolean referenceTracking;
+    private final boolean nullFields;
+    private final boolean schemaEvolution;
+    private final boolean stringTable;
+    private final StringCache stringCache;
+    private final FieldPolicy fieldPolicy;
+    private final ClassPlanCache plans;
+    private final SerializerGenerator generator = new SerializerGenerator();
+    private final CollectionFactories collections = new CollectionFactories();
+    private final TypeSerializers types = new TypeSerializers();
+    private final BufferPool buffers = new BufferPool(2 * Runtime.getRuntime().availableProcessors());
+
+    public ObjectSerializer() {
+        this(DEFAULT_MAX_DEBTH, FailHandler.WRAP_IN_RUNTIME_EX);
+    }
+
+    public ObjectSerializer(int maxDebth) {
+        this(maxDebth, FailHandler.WRAP_IN_RUNTIME_EX);
+    }
+
+    public ObjectSerializer(FailHandler<Exception> failHandler) {
+        this(DEFAULT_MAX_DEBTH, failHandler);
+    }
+
+    public ObjectSerializer(int maxDebth, FailHandler<Exception> failHandler) {
+        this(maxDebth, failHandler, Mode.REFLECTIVE);
+    }
+
+    public ObjectSerializer(int maxDebth, FailHandler<Exception> failHandler, Mode mode) {
+        this(builder().maxDebth(maxDebth).failHandler(failHandler).mode(mode));
+    }
+
+    private ObjectSerializer(Builder builder) {
+        this.maxDebth = builder.maxDebth;
+        this.failHandler = builder.failHandler;
+        this.mode = builder.mode;
+        this.compiledSerializers = builder.compiledSerializers;
+        this.compact = builder.compact;
+        this.referenceTracking = builder.referenceTracking;
+        this.nullFields = builder.nullFields;
+        this.schemaEvolution = builder.schemaEvolution;
+        this.stringTable = builder.stringTable;
+        this.stringCache = builder.stringCache > 0 ? new StringCache(builder.stringCache) : null;
+        this.fieldPolicy = builder.fieldPolicy;
+        this.plans = new ClassPlanCache(fieldPolicy);
+        builder.factories.forEach(collections::register);
+        if (builder.builtInTypeSerializers) {
+            TypeSerializers.builtIns().forEach(types::register);
+        }
+        builder.typeSerializers.forEach(types::register);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxDebth() {
+        return maxDebth;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return Whether ints, longs and string lengths are written as varints
+     * @see Builder#compact(boolean)
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * @see Builder#referenceTracking(boolean)
+     */
+    public boolean isReferenceTracking() {
+        return referenceTracking;
+    }
+
+    /**
+     * @see Builder#nullFields(boolean)
+     */
+    public boolean isNullFields() {
+        return nullFields;
+    }
+
+    /**
+     * @see Builder#schemaEvolution(boolean)
+     */
+    public boolean isSchemaEvolution() {
+        return schemaEvolution;
+    }
+
+    /**
+     * @see Builder#stringTable(boolean)
+     */
+    public boolean isStringTable() {
+        return stringTable;
+    }
+
+    public FieldPolicy getFieldPolicy() {
+        return fieldPolicy;
+    }
+
+    /**
+     * Builds and caches the serialization plans of the given classes ahead of time,
+     * so that the first {@link #write(Object)} or {@link #read(byte[], Class)} of each does not pay for it.
+     *
+     * @param classes The classes to prepare
+     */
+    public void prepare(Class<?>... classes) {
+        prepare(Arrays.asList(classes));
+    }
+
+    /**
+     * @param classes The classes to prepare
+     * @see #prepare(Class[])
+     */
+    public void prepare(Collection<Class<?>> classes) {
+        for (Class<?> clazz : classes) {
+            plans.get(clazz);
+        }
+    }
+
+    /**
+     * @param clazz The class to get the plan of
+     * @return The cached serialization plan of the class, building it if necessary
+     */
+    public ClassPlan getPlan(Class<?> clazz) {
+        return plans.get(clazz);
+    }
+
+    /**
+     * @return The amount of classes this serializer currently holds a serialization plan for
+     */
+    public int getCachedPlanCount() {
+        return plans.size();
+    }
+
+    public byte[] write(Object obj) {
+        var writer = configure(new DataWriter(null, null, buffers.acquire(DataWriter.INITIAL_MEMORY_SIZE), true));
+        try {
+            write(obj, writer, 0);
+            return writer.toByteArray();
+        } finally {
+            buffers.release(writer.getBuffer());
+        }
+    }
+
+    /**
+     * @return The object as a frame of an {@link ObjectWriter}, its length followed by the object
+     */
+    byte[] writeFrame(Object obj) throws IOException {
+        var writer = configure(new DataWriter(null, null, buffers.acquire(DataWriter.INITIAL_MEMORY_SIZE), true));
+        try {
+            int frame = writer.reserveInt();
+            write(obj, writer, 0);
+            writer.putInt(frame, writer.size() - Integer.BYTES);
+            return writer.toByteArray();
+        } finally {
+            buffers.release(writer.getBuffer());
+        }
+    }
+
+    public void write(Object obj, OutputStream out) {
+        writePooled(obj, out, null);
+    }
+
+    /**
+     * Writes the object straight into the remaining space of the given buffer and advances its position,
+     * the buffer may be direct. Nothing is written if the object does not fit.
+     *
+     * @throws java.nio.BufferOverflowException if the object does not fit into the remaining space
+     */
+    public void write(Object obj, ByteBuffer buffer) {
+        var writer = configure(new DataWriter(buffer));
+        write(obj, writer, 0);
+        buffer.position(buffer.position() + writer.size());
+    }
+
+    /**
+     * @param channel The blocking channel to write to, it is not closed afterwards
+     */
+    public void write(Object obj, WritableByteChannel channel) {
+        writePooled(obj, null, channel);
+    }
+
+    private void writePooled(Object obj, OutputStream out, WritableByteChannel channel) {
+        var writer = configure(new DataWriter(out, channel, buffers.acquire(DataWriter.DEFAULT_BUFFER_SIZE), true));
+        try {
+            write(obj, writer, 0);
+        } finally {
+            buffers.release(writer.getBuffer());
+        }
+    }
+
+    /**
+     * Writes the objects in parallel on the common {@link ForkJoinPool}.
+     *
+     * @see #writeAll(List, Executor)
+     */
+    public byte[] writeAll(List<?> objects) {
+        return writeAll(objects, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Writes the objects as consecutive frames, the same an {@link ObjectWriter} would write. Chunks of the list are
+     * serialized into separate buffers by tasks of the executor and joined in the order of the list.
+     * With schema evolution the objects are written on the calling thread instead.
+     *
+     * @param executor Runs the tasks serializing the chunks
+     * @see #readAll(byte[], Class, Executor)
+     */
+    public byte[] writeAll(List<?> objects, Executor executor) {
+        try {
+            return Batch.write(this, buffers, objects, executor);
+        } catch (IOException e) {
+            failHandler.onException(e);
+        }
+        return null;
+    }
+
+    /**
+     * @return The schemas of a new stream, or {@code null} without schema evolution
+     */
+    SchemaTable newSchemaTable() {
+        return schemaEvolution ? new SchemaTable(plans) : null;
+    }
+
+    /**
+     * Applies the wire format of this serializer to a writer created for it.
+     */
+    DataWriter configure(DataWriter writer) {
+        writer.setCompact(compact);
+        writer.setReferences(referenceTracking ? new IdentityIntMap() : null);
+        writer.setSchemas(newSchemaTable());
+        writer.setStrings(stringTable ? new HashMap<>() : null);
+        return writer;
+    }
+
+    DataReader configure(DataReader reader) {
+        reader.setCompact(compact);
+        reader.setReferences(referenceTracking ? new ArrayList<>() : null);
+        reader.setSchemas(newSchemaTable());
+        reader.setStrings(stringTable ? new ArrayList<>() : null);
+        reader.setStringCache(stringCache);
+        return reader;
+    }
+
+    /**
+     * Reads the schemas preceding an outermost object without reading the object,
+     * so the stream can continue after it.
+     */
+    void readSchemas(DataReader reader) throws IOException {
+        if (reader.getSchemas() != null) {
+            reader.getSchemas().readDefinitions(reader);
+        }
+    }
+
+    public void write(Object obj, DataWriter serializer, int debth) {
+        if (debth > maxDebth) {
+            throw new RecursiveDebthException(String.format("Maximum recursive debth has been surpassed. current:%d, maximum:%d", debth, maxDebth));
+        }
+        if (debth == 0) {
+            //every outermost object starts a new graph
+            if (serializer.getReferences() != null) {
+                serializer.getReferences().clear();
+            }
+            if (serializer.getStrings() != null) {
+                serializer.getStrings().clear();
+            }
+        }
+        SchemaTable schemas = serializer.getSchemas();
+        if (debth == 0 && schemas != null) {
+            //the schemas first used by the object precede it, they are only known once it is written
+            DataWriter body = schemas.body(serializer);
+            writeAny(obj, body, debth);
+            try {
+                schemas.writeDefinitions(serializer);
+                body.writeTo(serializer);
+            } catch (IOException e) {
+                failHandler.onException(e);
+            }
+        } else {
+            writeAny(obj, serializer, debth);
+        }
+        if (debth == 0) {
+            //nested objects go into the same buffer, only the outermost one hands it to the stream
+            try {
+                serializer.flush();
+            } catch (IOException e) {
+                failHandler.onException(e);
+            }
+        }
+    }
+
+    private void writeAny(Object obj, DataWriter serializer, int debth) {
+        if (obj.getClass().isArray()) {
+            try {
+                writeArray(obj, TypeDescriptor.of(obj.getClass()), serializer, debth);
+            } catch (IOException e) {
+                failHandler.onException(e);
+            }
+        } else {
+            writeObject(obj, serializer, debth);
+        }
+    }
+
+    private void writeObject(Object obj, DataWriter serializer, int debth) {
+        IdentityIntMap references = serializer.getReferences();
+        if (references != null) {
+            int id = references.putIfAbsent(obj, references.size());
+            if (debth > 0) {
+                //nested objects are tagged with 0 when they follow, otherwise with their id + 1
+                try {
+                    serializer.writeVarInt(id + 1);
+                } catch (IOException e) {
+                    failHandler.onException(e);
+                }
+                if (id >= 0) {
+                    return;
+                }
+            }
+        }
+        TypeSerializer<Object> custom = types.get(obj.getClass());
+        if (custom != null) {
+            try {
+                custom.write(obj, serializer);
+            } catch (IOException e) {
+                failHandler.onException(e);
+            }
+            return;
+        }
+        ClassSerializer<Object> generated = findSerializer(obj.getClass());
+        if (generated != null) {
+            try {
+                generated.write(obj, serializer, this, debth);
+            } catch (IOException e) {
+                failHandler.onException(e);
+            }
+        } else {
+            ClassPlan plan = plans.get(obj.getClass());
+            if (serializer.getSchemas() != null) {
+                try {
+                    serializer.writeVarInt(serializer.getSchemas().id(plan));
+                } catch (IOException e) {
+                    failHandler.onException(e);
+                }
+            }
+            if (nullFields && plan.getNullableFieldCount() > 0) {
+                try {
+                    writeNullableFields(obj, plan, serializer, debth);
+                } catch (IOException e) {
+                    failHandler.onException(e);
+                }
+                return;
+            }
+            for (FieldPlan field : plan.fields()) {
+                try {
+                    writeField(obj, field, serializer, debth);
+                } catch (IOException e) {
+                    failHandler.onException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a bitmap of which reference-typed fields are present, one bit per field in field order,
+     * followed by the fields with all absent ones left out.
+     */
+    private void writeNullableFields(Object obj, ClassPlan plan, DataWriter writer, int debth) throws IOException {
+        int bits = 0;
+        int index = 0;
+        for (FieldPlan field : plan.fields()) {
+            FieldAccessor accessor = field.getAccessor();
+            if (!accessor.isPrimitive()) {
+                if (accessor.get(obj) != null) {
+                    bits |= 1 << (index & 7);
+                }
+                if ((++index & 7) == 0) {
+                    writer.writeByte((byte) bits);
+                    bits = 0;
+                }
+            }
+        }
+        if ((index & 7) != 0) {
+            writer.writeByte((byte) bits);
+        }
+        for (FieldPlan field : plan.fields()) {
+            FieldAccessor accessor = field.getAccessor();
+            if (accessor.isPrimitive()) {
+                writeField(obj, field, writer, debth);
+            } else {
+                Object value = accessor.get(obj);
+                if (value != null) {
+                    writeValue(value, field.getDescriptor(), writer, debth);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the fields as they were written with the given schema, along with their null bitmap if there is one.
+     *
+     * @param obj        The object the fields are read into, without it and without components all fields are skipped
+     * @param components The components of a record the fields are read into instead of the object, or {@code null}
+     * @param targets    For each field of the schema the field of the object it is read into, or {@code null} to skip it
+     * @see #writeNullableFields(Object, ClassPlan, DataWriter, int)
+     */
+    private void readFields(Object obj, Object[] components, Schema schema, FieldPlan[] targets, DataReader reader, int debth) throws IOException {
+        int nullable = nullFields ? schema.getNullableFieldCount() : 0;
+        int bytes = (nullable + 7) >>> 3;
+        //a long covers up to 64 fields without allocating
+        long bits = 0;
+        byte[] bitmap = null;
+        if (bytes <= Long.BYTES) {
+            for (int i = 0; i < bytes; i++) {
+                bits |= (reader.readByte() & 0xFFL) << (i << 3);
+            }
+        } else {
+            bitmap = reader.readBytes(bytes);
+        }
+        int index = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (nullable > 0 && schema.isNullable(i)) {
+                boolean present = bitmap == null
+                        ? (bits >>> index & 1) != 0
+                        : (bitmap[index >>> 3] >>> (index & 7) & 1) != 0;
+                index++;
+                if (!present) {
+                    continue;
+                }
+            }
+            if (targets[i] == null) {
+                skipValue(schema.getSignature(i), 0, reader, debth);
+            } else if (obj == null && components == null) {
+                skipValue(targets[i].getDescriptor(), reader, debth);
+            } else if (components != null) {
+                components[targets[i].getComponent()] = readValue(targets[i].getDescriptor(), reader, debth);
+            } else {
+                readField(obj, targets[i], reader, debth);
+            }
+        }
+    }
+
+    /**
+     * Reads past a value of a field that is not read into anything, as described by its signature.
+     *
+     * @param at The index at which the signature of the value starts
+     * @see TypeDescriptor#getSignature()
+     */
+    void skipValue(String signature, int at, DataReader reader, int debth) throws IOException {
+        char code = signature.charAt(at);
+        switch (code) {
+            case 'z', 'Z', 'b', 'B', 'c', 'C', 'd', 'D', 'f', 'F', 'i', 'I', 'j', 'J', 's', 'S' ->
+                    reader.skip(DataType.identify(primitive(Character.toLowerCase(code))));
+            case 'T' -> reader.skip(DataType.STRING);
+            case '[' -> {
+                if (Character.isLowerCase(signature.charAt(at + 1))) {
+                    reader.skipArray(DataType.identify(primitive(signature.charAt(at + 1))));
+                } else {
+                    skipElements(reader.readArrayLength(), signature, at + 1, reader, debth);
+                }
+            }
+            case '<' -> skipElements(reader.readArrayLength(), signature, at + 1, reader, debth);
+            case '{' -> {
+                int size = reader.readArrayLength();
+                int value = end(signature, at + 1);
+                for (int i = 0; i < size; i++) {
+                    skipElements(1, signature, at + 1, reader, debth);
+                    skipElements(1, signature, value, reader, debth);
+                }
+            }
+            case 'L' -> skipObject(signature, at + 1, signature.indexOf(';', at), reader, debth + 1);
+            default -> throw new IOException("Invalid signature: " + signature);
+        }
+    }
+
+    /**
+     * Reads past a value of the given type without creating it, nested objects included.
+     *
+     * @see DataReader#skip(DataType)
+     */
+    void skipValue(TypeDescriptor type, DataReader reader, int debth) throws IOException {
+        switch (type.getDataType()) {
+            case ARRAY -> {
+                TypeDescriptor component = type.getElement();
+                if (component.getType().isPrimitive()) {
+                    reader.skipArray(component.getDataType());
+                } else {
+                    skipElements(reader.readArrayLength(), component, reader, debth);
+                }
+            }
+            case COLLECTION -> skipElements(reader.readArrayLength(), type.getElement(), reader, debth);
+            case MAP -> {
+                int size = reader.readArrayLength();
+                for (int i = 0; i < size; i++) {
+                    skipElements(1, type.getKey(), reader, debth);
+                    skipElements(1, type.getValue(), reader, debth);
+                }
+            }
+            case OBJECT -> skipObject(type.getType(), reader, debth + 1);
+            default -> reader.skip(type.getDataType());
+        }
+    }
+
+    private void skipElements(int count, TypeDescriptor element, DataReader reader, int debth) throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (reader.readBool()) {
+                skipValue(element, reader, debth);
+            }
+        }
+    }
+
+    private void skipObject(Class<?> type, DataReader reader, int debth) throws IOException {
+        if (skipReferenceOrCustom(types.get(type), reader, debth)) {
+            return;
+        }
+        SchemaTable schemas = reader.getSchemas();
+        if (schemas != null) {
+            Schema schema = schemas.get(reader.readVarInt());
+            readFields(null, null, schema, schema.skipped(), reader, debth);
+        } else {
+            ClassPlan plan = plans.get(type);
+            readFields(null, null, plan.getSchema(), plan.fields(), reader, debth);
+        }
+    }
+
+    private void skipElements(int count, String signature, int at, DataReader reader, int debth) throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (reader.readBool()) {
+                skipValue(signature, at, reader, debth);
+            }
+        }
+    }
+
+    /**
+     * @param from The index of the class name in the signature
+     * @param to   The index just past the class name
+     */
+    private void skipObject(String signature, int from, int to, DataReader reader, int debth) throws IOException {
+        if (skipReferenceOrCustom(types.get(signature, from, to), reader, debth)) {
+            return;
+        }
+        Schema schema = reader.getSchemas().get(reader.readVarInt());
+        readFields(null, null, schema, schema.skipped(), reader, debth);
+    }
+
+    /**
+     * Reads past the parts of a skipped object that precede its fields.
+     *
+     * @return Whether the object was a reference or written by the given custom serializer, and is skipped already
+     */
+    private boolean skipReferenceOrCustom(TypeSerializer<?> custom, DataReader reader, int debth) throws IOException {
+        if (debth > maxDebth) {
+            throw new RecursiveDebthException(String.format("Maximum recursive debth has been surpassed. current:%d, maximum:%d", debth, maxDebth));
+        }
+        List<Object> references = reader.getReferences();
+        if (references != null && reader.readVarInt() > 0) {
+            return true;
+        }
+        if (custom != null) {
+            if (references != null) {
+                //later references may still be read into a field, they have to resolve to the actual value
+                references.add(custom.read(reader));
+            } else {
+                custom.skip(reader);
+            }
+            return true;
+        }
+        if (references != null) {
+            //keeps the ids of the following objects in line, references to a skipped object read as null
+            references.add(null);
+        }
+        return false;
+    }
+
+    /**
+     * @return The index just past the signature starting at the given index
+     */
+    private static int end(String signature, int at) {
+        return switch (signature.charAt(at)) {
+            case '[', '<' -> end(signature, at + 1);
+            case '{' -> end(signature, end(signature, at + 1));
+            case 'L' -> signature.indexOf(';', at) + 1;
+            default -> at + 1;
+        };
+    }
+
+    private static Class<?> primitive(char code) {
+        return switch (code) {
+            case 'z' -> boolean.class;
+            case 'b' -> byte.class;
+            case 'c' -> char.class;
+            case 'd' -> double.class;
+            case 'f' -> float.class;
+            case 'i' -> int.class;
+            case 'j' -> long.class;
+            case 's' -> short.class;
+            default -> throw new IllegalArgumentException("Not a primitive: " + code);
+        };
+    }
+
+    public <T> T read(byte[] bytes, Class<T> type) {
+        return read(configure(new DataReader(bytes)), type, 0);
+    }
+
+    /**
+     * Creates a view of a serialized object that decodes only the fields asked for.
+     * Views need random access to the object, they do not support reference tracking or the string table,
+     * which let values refer back to ones written before them.
+     *
+     * @param type The class of the object, it must not be an array or written by a {@link TypeSerializer}
+     * @throws IllegalStateException if this serializer tracks references or deduplicates strings
+     */
+    public ObjectView view(byte[] bytes, Class<?> type) {
+        return view(ByteBuffer.wrap(bytes), type);
+    }
+
+    /**
+     * The position of the buffer is left unchanged, the view reads from the remaining bytes as they are.
+     *
+     * @see #view(byte[], Class)
+     */
+    public ObjectView view(ByteBuffer buffer, Class<?> type) {
+        if (referenceTracking || stringTable) {
+            throw new IllegalStateException("Views do not support reference tracking or the string table");
+        }
+        if (type.isArray() || types.get(type) != null) {
+            throw new IllegalArgumentException(type.getName() + " is not written field by field");
+        }
+        try {
+            return new ObjectView(this, configure(new DataReader(buffer)), plans.get(type));
+        } catch (IOException e) {
+            failHandler.onException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the objects in parallel on the common {@link ForkJoinPool}.
+     *
+     * @see #readAll(byte[], Class, Executor)
+     */
+    public <T> List<T> readAll(byte[] bytes, Class<T> type) {
+        return readAll(bytes, type, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads all frames written by {@link #writeAll(List, Executor)} or an {@link ObjectWriter}. The offsets of the
+     * frames are found by following their lengths, then chunks of them are decoded by tasks of the executor.
+     * With schema evolution the objects are read on the calling thread instead.
+     *
+     * @param type     The class of every object in the batch
+     * @param executor Runs the tasks reading the chunks
+     * @return The objects in the order they were written
+     */
+    public <T> List<T> readAll(byte[] bytes, Class<T> type, Executor executor) {
+        try {
+            return Batch.read(this, bytes, type, executor);
+        } catch (IOException e) {
+            failHandler.onException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Reads a single object and closes the stream afterwards, use an {@link ObjectReader} to read several.
+     */
+    public <T> T read(InputStream in, Class<T> type) {
+        return readAndClose(in, null, type);
+    }
+
+    /**
+     * Reads an object from the remaining bytes of the given buffer and advances its position past it,
+     * the buffer may be direct.
+     */
+    public <T> T read(ByteBuffer buffer, Class<T> type) {
+        var reader = configure(new DataReader(buffer));
+        T obj = read(reader, type, 0);
+        buffer.position(buffer.position() + reader.position());
+        return obj;
+    }
+
+    /**
+     * Like {@link #read(InputStream, Class)} the channel is closed afterwards.
+     *
+     * @param channel The blocking channel to read from
+     */
+    public <T> T read(ReadableByteChannel channel, Class<T> type) {
+        return readAndClose(null, channel, type);
+    }
+
+    private <T> T readAndClose(InputStream in, ReadableByteChannel channel, Class<T> type) {
+        ByteBuffer buffer = buffers.acquire(DataReader.DEFAULT_BUFFER_SIZE);
+        var reader = configure(new DataReader(in, channel, buffer.flip()));
+        try {
+            T obj = read(reader, type, 0);
+            try {
+                reader.close();
+            } catch (IOException e) {
+                failHandler.onException(e);
+            }
+            return obj;
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    public <T> T read(DataReader reader, Class<T> type, int debth) {
+        if (debth > maxDebth) {
+            throw new RecursiveDebthException(String.format("Maximum recursive debth has been surpassed. current:%d, maximum:%d", debth, maxDebth));
+        }
+        if (debth == 0) {
+            //every outermost object starts a new graph
+            if (reader.getReferences() != null) {
+                reader.getReferences().clear();
+            }
+            if (reader.getStrings() != null) {
+                reader.getStrings().clear();
+            }
+        }
+        SchemaTable schemas = reader.getSchemas();
+        try {
+            if (debth == 0 && schemas != null) {
+                schemas.readDefinitions(reader);
+            }
+            if (type.isArray()) {
+                return type.cast(readArray(TypeDescriptor.of(type), reader, debth));
+            }
+            List<Object> references = reader.getReferences();
+            if (references != null && debth > 0) {
+                int tag = reader.readVarInt();
+                if (tag > 0) {
+                    return type.cast(reference(references, tag - 1));
+                }
+            }
+            TypeSerializer<T> custom = types.get(type);
+            if (custom != null) {
+                T value = custom.read(reader);
+                if (references != null) {
+                    references.add(value);
+                }
+                return value;
+            }
+            //dedicated serializers create the object themselves, too late to register it for references within it
+            ClassSerializer<T> generated = references == null ? findSerializer(type) : null;
+            T obj;
+            if (generated != null) {
+                obj = generated.read(reader, this, debth);
+            } else {
+                ClassPlan plan = plans.get(type);
+                Schema schema = schemas != null ? schemas.get(reader.readVarInt()) : null;
+                if (plan.isRecord()) {
+                    return type.cast(readRecord(plan, schema, reader, debth));
+                }
+                obj = type.cast(plan.getInstantiator().newInstance());
+                if (references != null) {
+                    references.add(obj);
+                }
+                if (schema != null) {
+                    readFields(obj, null, schema, schema.resolve(plan), reader, debth);
+                } else if (nullFields && plan.getNullableFieldCount() > 0) {
+                    readFields(obj, null, plan.getSchema(), plan.fields(), reader, debth);
+                } else {
+                    for (FieldPlan field : plan.fields()) {
+                        readField(obj, field, reader, debth);
+                    }
+                }
+            }
+            return obj;
+        } catch (IOException e) {
+            failHandler.onException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the components of a record and passes them to its canonical constructor.
+     *
+     * @param schema The schema the record was written with, or {@code null} if schemas are not written
+     */
+    private Object readRecord(ClassPlan plan, Schema schema, DataReader reader, int debth) throws IOException {
+        List<Object> references = reader.getReferences();
+        int id = -1;
+        if (references != null) {
+            //the record only exists once its components are read, references to it from within them read as null
+            id = references.size();
+            references.add(null);
+        }
+        Object[] components = plan.newComponents();
+        if (schema != null) {
+            readFields(null, components, schema, schema.resolve(plan), reader, debth);
+        } else {
+            readFields(null, components, plan.getSchema(), plan.fields(), reader, debth);
+        }
+        Object record = plan.construct(components);
+        if (references != null) {
+            references.set(id, record);
+        }
+        return record;
+    }
+
+    private static Object reference(List<Object> references, int id) throws IOException {
+        if (id >= references.size()) {
+            throw new IOException("Reference to object " + id + " which has not been read yet");
+        }
+        return references.get(id);
+    }
+
+    /**
+     * Compile-time generated serializers take precedence, as they need no reflection at all.
+     * Runtime generated ones are only used in {@link Mode#GENERATED}.
+     *
+     * Neither know schemas nor the null bitmap, so no class is handled by them while schemas are written
+     * and classes with nullable fields are handled reflectively while the bitmap is.
+     *
+     * @return The dedicated serializer for the given class, or {@code null} to use the reflective path
+     */
+    private <T> ClassSerializer<T> findSerializer(Class<?> type) {
+        if (schemaEvolution) {
+            return null;
+        }
+        if (nullFields && plans.get(type).getNullableFieldCount() > 0) {
+            return null;
+        }
+        //compiled serializers only know the fields of the default policy
+        if (compiledSerializers && fieldPolicy == FieldPolicy.DEFAULT) {
+            ClassSerializer<T> compiled = CompiledSerializers.get(type);
+            if (compiled != null) {
+                return compiled;
+            }
+        }
+        return mode == Mode.GENERATED ? generator.get(plans.get(type)) : null;
+    }
+
+    /**
+     * Writes a single field, primitive fields are copied straight from the object to the writer without boxing.
+     *
+     * @apiNote Used by {@link ClassSerializer}s for the fields they do not handle themselves
+     */
+    public void writeField(Object obj, FieldPlan field, DataWriter serializer, int debth) throws IOException {
+        FieldAccessor accessor = field.getAccessor();
+        if (!accessor.isPrimitive()) {
+            writeValue(accessor.get(obj), field.getDescriptor(), serializer, debth);
+            return;
+        }
+        switch (field.getDataType()) {
+            case BOOLEAN -> serializer.write(accessor.getBoolean(obj));
+            case BYTE -> serializer.writeByte(accessor.getByte(obj));
+            case CHAR -> serializer.write(accessor.getChar(obj));
+            case DOUBLE -> serializer.write(accessor.getDouble(obj));
+            case FLOAT -> serializer.write(accessor.getFloat(obj));
+            case INTEGER -> serializer.write(accessor.getInt(obj));
+            case LONG -> serializer.write(accessor.getLong(obj));
+            case SHORT -> serializer.write(accessor.getShort(obj));
+            default -> throw new IllegalStateException("Unexpected value: " + field.getDataType());
+        }
+    }
+
+    /**
+     * Reads a single field, primitive fields are copied straight from the reader to the object without boxing.
+     *
+     * @apiNote Used by {@link ClassSerializer}s for the fields they do not handle themselves
+     */
+    public void readField(Object obj, FieldPlan field, DataReader reader, int debth) throws IOException {
+        FieldAccessor accessor = field.getAccessor();
+        if (!accessor.isPrimitive()) {
+            accessor.set(obj, readValue(field.getDescriptor(), reader, debth));
+            return;
+        }
+        switch (field.getDataType()) {
+            case BOOLEAN -> accessor.setBoolean(obj, reader.readBool());
+            case BYTE -> accessor.setByte(obj, reader.readByte());
+            case CHAR -> accessor.setChar(obj, reader.readChar());
+            case DOUBLE -> accessor.setDouble(obj, reader.readDouble());
+            case FLOAT -> accessor.setFloat(obj, reader.readFloat());
+            case INTEGER -> accessor.setInt(obj, reader.readInt());
+            case LONG -> accessor.setLong(obj, reader.readLong());
+            case SHORT -> accessor.setShort(obj, reader.readShort());
+            default -> throw new IllegalStateException("Unexpected value: " + field.getDataType());
+        }
+    }
+
+    /**
+     * Writes an array of the given type, its length followed by the elements. Primitive arrays are written in bulk,
+     * the elements of all others are each preceded by whether they are present.
+     *
+     * @param array The array to write, may be {@code null}
+     * @param type  The declared array type, which decides how the elements are written
+     * @apiNote Used by {@link ClassSerializer}s for array fields
+     */
+    public void writeArray(Object array, Class<?> type, DataWriter writer, int debth) throws IOException {
+        writeArray(array, TypeDescriptor.of(type), writer, debth);
+    }
+
+    private void writeArray(Object array, TypeDescriptor type, DataWriter writer, int debth) throws IOException {
+        TypeDescriptor component = type.getElement();
+        if (component.getType().isPrimitive()) {
+            switch (component.getDataType()) {
+                case BOOLEAN -> writer.writeArray((boolean[]) array);
+                case BYTE -> writer.writeArray((byte[]) array);
+                case CHAR -> writer.writeArray((char[]) array);
+                case DOUBLE -> writer.writeArray((double[]) array);
+                case FLOAT -> writer.writeArray((float[]) array);
+                case INTEGER -> writer.writeArray((int[]) array);
+                case LONG -> writer.writeArray((long[]) array);
+                case SHORT -> writer.writeArray((short[]) array);
+                default -> throw new IllegalStateException("Unexpected component: " + component);
+            }
+            return;
+        }
+        Object[] values = (Object[]) array;
+        writer.writeArrayLength(values == null ? -1 : values.length);
+        if (values != null) {
+            for (Object value : values) {
+                writeElement(value, component, writer, debth);
+            }
+        }
+    }
+
+    /**
+     * @param type The declared array type
+     * @return The array, or {@code null} if a {@code null} array was written
+     * @see #writeArray(Object, Class, DataWriter, int)
+     */
+    public <T> T readArray(Class<T> type, DataReader reader, int debth) throws IOException {
+        return type.cast(readArray(TypeDescriptor.of(type), reader, debth));
+    }
+
+    private Object readArray(TypeDescriptor type, DataReader reader, int debth) throws IOException {
+        TypeDescriptor component = type.getElement();
+        if (component.getType().isPrimitive()) {
+            return switch (component.getDataType()) {
+                case BOOLEAN -> reader.readBooleanArray();
+                case BYTE -> reader.readByteArray();
+                case CHAR -> reader.readCharArray();
+                case DOUBLE -> reader.readDoubleArray();
+                case FLOAT -> reader.readFloatArray();
+                case INTEGER -> reader.readIntArray();
+                case LONG -> reader.readLongArray();
+                case SHORT -> reader.readShortArray();
+                default -> throw new IllegalStateException("Unexpected component: " + component);
+            };
+        }
+        int length = reader.readArrayLength();
+        if (length < 0) {
+            return null;
+        }
+        Object[] values = (Object[]) Array.newInstance(component.getType(), length);
+        for (int i = 0; i < length; i++) {
+            values[i] = readElement(component, reader, debth);
+        }
+        return values;
+    }
+
+    /**
+     * Writes the size of the collection followed by its elements, each preceded by whether it is present.
+     */
+    private void writeCollection(Collection<?> values, TypeDescriptor type, DataWriter writer, int debth) throws IOException {
+        writer.writeArrayLength(values == null ? -1 : values.size());
+        if (values == null) {
+            return;
+        }
+        TypeDescriptor element = requireKnown(type.getElement(), type);
+        if (isWrapper(element)) {
+            writeWrappers(values, element.getDataType(), writer);
+            return;
+        }
+        for (Object value : values) {
+            writeElement(value, element, writer, debth);
+        }
+    }
+
+    /**
+     * Reads a collection into a new instance of its declared type, presized for its elements.
+     */
+    private Collection<Object> readCollection(TypeDescriptor type, DataReader reader, int debth) throws IOException {
+        int size = reader.readArrayLength();
+        if (size < 0) {
+            return null;
+        }
+        TypeDescriptor element = requireKnown(type.getElement(), type);
+        Collection<Object> values = collections.newCollection(type.getType(), size);
+        if (isWrapper(element)) {
+            readWrappers(values, size, element.getDataType(), reader);
+            return collections.complete(type.getType(), values);
+        }
+        for (int i = 0; i < size; i++) {
+            values.add(readElement(element, reader, debth));
+        }
+        return collections.complete(type.getType(), values);
+    }
+
+    private static boolean isWrapper(TypeDescriptor type) {
+        return type.getDataType().getSize() > 0;
+    }
+
+    /**
+     * Collections of wrapped primitives are written without dispatching on the type of each element.
+     */
+    private static void writeWrappers(Collection<?> values, DataType type, DataWriter writer) throws IOException {
+        switch (type) {
+            case BOOLEAN -> {
+                for (Object value : values) {
+                    writer.write(value != null);
+                    if (value != null) {
+                        writer.write((boolean) value);
+                    }
+                }
+            }
+            case BYTE -> {
+                for (Object value : values) {
+                    writer.write(value != null);
+                    if (value != null) {
+                        writer.writeByte((byte) value);
+                    }
+                }
+            }
+            case CHAR -> {
+                for (Object value : values) {
+                    writer.write(value != null);
+                    if (value != null) {
+                        writer.write((char) value);
+                    }
+                }
+            }
+            case DOUBLE -> {
+                for (Object value : values) {
+                    writer.write(value != null);
+                    if (value != null) {
+                        writer.write((double) value);
+                    }
+                }
+            }
+            case FLOAT -> {
+                for (Object value : values) {
+                    writer.write(value != null);
+                    if (value != null) {
+                        writer.write((float) value);
+                    }
+                }
+            }
+            case INTEGER -> {
+                for (Object value : values) {
+                    writer.write(value != null);
+                    if (value != null) {
+                        writer.write((int) value);
+                    }
+                }
+            }
+            case LONG -> {
+                for (Object value : values) {
+                    writer.write(value != null);
+                    if (value != null) {
+                        writer.write((long) value);
+                    }
+                }
+            }
+            case SHORT -> {
+                for (Object value : values) {
+                    writer.write(value != null);
+                    if (value != null) {
+                        writer.write((short) value);
+                    }
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + type);
+        }
+    }
+
+    /**
+     * @see #writeWrappers(Collection, DataType, DataWriter)
+     */
+    private static void readWrappers(Collection<Object> values, int size, DataType type, DataReader reader) throws IOException {
+        switch (type) {
+            case BOOLEAN -> {
+                for (int i = 0; i < size; i++) {
+                    values.add(reader.readBool() ? (Boolean) reader.readBool() : null);
+                }
+            }
+            case BYTE -> {
+                for (int i = 0; i < size; i++) {
+                    values.add(reader.readBool() ? (Byte) reader.readByte() : null);
+                }
+            }
+            case CHAR -> {
+                for (int i = 0; i < size; i++) {
+                    values.add(reader.readBool() ? (Character) reader.readChar() : null);
+                }
+            }
+            case DOUBLE -> {
+                for (int i = 0; i < size; i++) {
+                    values.add(reader.readBool() ? (Double) reader.readDouble() : null);
+                }
+            }
+            case FLOAT -> {
+                for (int i = 0; i < size; i++) {
+                    values.add(reader.readBool() ? (Float) reader.readFloat() : null);
+                }
+            }
+            case INTEGER -> {
+                for (int i = 0; i < size; i++) {
+                    values.add(reader.readBool() ? (Integer) reader.readInt() : null);
+                }
+            }
+            case LONG -> {
+                for (int i = 0; i < size; i++) {
+                    values.add(reader.readBool() ? (Long) reader.readLong() : null);
+                }
+            }
+            case SHORT -> {
+                for (int i = 0; i < size; i++) {
+                    values.add(reader.readBool() ? (Short) reader.readShort() : null);
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + type);
+        }
+    }
+
+    /**
+     * Writes the size of the map followed by its entries, each as its key and its value.
+     */
+    private void writeMap(Map<?, ?> map, TypeDescriptor type, DataWriter writer, int debth) throws IOException {
+        writer.writeArrayLength(map == null ? -1 : map.size());
+        if (map == null) {
+            return;
+        }
+        TypeDescriptor key = requireKnown(type.getKey(), type);
+        TypeDescriptor value = requireKnown(type.getValue(), type);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeElement(entry.getKey(), key, writer, debth);
+            writeElement(entry.getValue(), value, writer, debth);
+        }
+    }
+
+    private Map<Object, Object> readMap(TypeDescriptor type, DataReader reader, int debth) throws IOException {
+        int size = reader.readArrayLength();
+        if (size < 0) {
+            return null;
+        }
+        TypeDescriptor key = requireKnown(type.getKey(), type);
+        TypeDescriptor value = requireKnown(type.getValue(), type);
+        Map<Object, Object> map = collections.newMap(type.getType(), size);
+        for (int i = 0; i < size; i++) {
+            map.put(readElement(key, reader, debth), readElement(value, reader, debth));
+        }
+        return map;
+    }
+
+    /**
+     * Elements are read as their declared type, so it has to be more specific than {@link Object}.
+     */
+    private static TypeDescriptor requireKnown(TypeDescriptor element, TypeDescriptor container) {
+        if (element.getType() == Object.class) {
+            throw new IllegalArgumentException("The element type of " + container
+                    + " is unknown, it has to be declared through its type arguments");
+        }
+        return element;
+    }
+
+    private void writeElement(Object value, TypeDescriptor type, DataWriter writer, int debth) throws IOException {
+        writer.write(value != null);
+        if (value != null) {
+            writeValue(value, type, writer, debth);
+        }
+    }
+
+    private Object readElement(TypeDescriptor type, DataReader reader, int debth) throws IOException {
+        return reader.readBool() ? readValue(type, reader, debth) : null;
+    }
+
+    /**
+     * Writes a value of any supported type.
+     *
+     * @param type The declared type of the value, which decides how it is written
+     * @apiNote Used by {@link ClassSerializer}s for collection and map fields
+     */
+    public void writeValue(Object value, TypeDescriptor type, DataWriter serializer, int debth) throws IOException {
+        //TODO replace with switch in java 17
+        if (type != null) {
+            if (value == null) {
+                requireNullable(type);
+            }
+            switch (type.getDataType()) {
+                case BOOLEAN -> serializer.write((boolean) value);
+                case BYTE -> serializer.writeByte((byte) value);
+                case CHAR -> serializer.write((char) value);
+                case DOUBLE -> serializer.write((double) value);
+                case FLOAT -> serializer.write((float) value);
+                case INTEGER -> serializer.write((int) value);
+                case LONG -> serializer.write((long) value);
+                case SHORT -> serializer.write((short) value);
+                case STRING -> serializer.write((String) value);
+                case ARRAY -> writeArray(value, type, serializer, debth);
+                case COLLECTION -> writeCollection((Collection<?>) value, type, serializer, debth);
+                case MAP -> writeMap((Map<?, ?>) value, type, serializer, debth);
+                case OBJECT -> this.write(value, serializer, ++debth);
+                default -> throw new IllegalArgumentException("Unexpected value: " + type);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported type: " + value.getClass());
+        }
+    }
+
+    /**
+     * Arrays, collections and maps encode {@code null} themselves, nothing else does.
+     */
+    private static void requireNullable(TypeDescriptor type) {
+        String message = nullValueMessage(type);
+        if (message != null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * @return Why a null value of the given type can not be written, or {@code null} if it can
+     * @see SerializerGenerator
+     */
+    static String nullValueMessage(TypeDescriptor type) {
+        DataType dataType = type.getDataType();
+        if (dataType == DataType.ARRAY || dataType == DataType.COLLECTION || dataType == DataType.MAP) {
+            return null;
+        }
+        return nullValueMessage(type.toString());
+    }
+
+    private static String nullValueMessage(String type) {
+        return "Can not write a null " + type + ", null fields have to be enabled through ObjectSerializer.builder().nullFields(true)";
+    }
+
+    /**
+     * Fails on a null value the same way {@link #writeValue(Object, TypeDescriptor, DataWriter, int)} does.
+     *
+     * @param type The simple name of the declared type of the value, which must not be an array, collection or map
+     * @apiNote Used by compiled {@link ClassSerializer}s for the fields they write themselves
+     */
+    public static void requireNonNull(Object value, String type) {
+        if (value == null) {
+            throw new IllegalArgumentException(nullValueMessage(type));
+        }
+    }
+
+    /**
+     * @see #writeValue(Object, TypeDescriptor, DataWriter, int)
+     */
+    public Object readValue(TypeDescriptor type, DataReader reader, int debth) throws IOException {
+        //TODO replace with switch in java 17
+        Object out;
+        if (type != null) {
+            switch (type.getDataType()) {
+                case BOOLEAN -> out = reader.readBool();
+                case BYTE -> out = reader.readByte();
+                case CHAR -> out = reader.readChar();
+                case DOUBLE -> out = reader.readDouble();
+                case FLOAT -> out = reader.readFloat();
+                case INTEGER -> out = reader.readInt();
+                case LONG -> out = reader.readLong();
+                case SHORT -> out = reader.readShort();
+                case STRING -> out = reader.readString();
+                case ARRAY -> out = readArray(type, reader, debth);
+                case COLLECTION -> out = readCollection(type, reader, debth);
+                case MAP -> out = readMap(type, reader, debth);
+                case OBJECT -> out = read(reader, type.getType(), ++debth);
+                default -> throw new IllegalStateException("Unexpected value: " + type);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported type: null");
+        }
+        return out;
+    }
+
+    /**
+     * How an {@link ObjectSerializer} walks the fields of a class. All modes produce identical bytes.
+     */
+    public enum Mode {
+        /**
+         * Fields are read and written through the cached {@link ClassPlan} of each class.
+         */
+        REFLECTIVE,
+        /**
+         * A dedicated {@link ClassSerializer} is generated at runtime for each class,
+         * falling back to {@link #REFLECTIVE} for classes it cannot be generated for.
+         */
+        GENERATED
+    }
+
+    public static class Builder {
+        private int maxDebth = DEFAULT_MAX_DEBTH;
+        private FailHandler<Exception> failHandler = FailHandler.WRAP_IN_RUNTIME_EX;
+        private Mode mode = Mode.REFLECTIVE;
+        private boolean compiledSerializers = true;
+        private boolean compact;
+        private boolean referenceTracking;
+        private boolean nullFields;
+        private boolean schemaEvolution;
+        private FieldPolicy fieldPolicy = FieldPolicy.DEFAULT;
+        private boolean stringTable;
+        private int stringCache;
+        private final Map<Class<?>, IntFunction<?>> factories = new LinkedHashMap<>();
+        private final List<TypeSerializer<?>> typeSerializers = new ArrayList<>();
+        private boolean builtInTypeSerializers = true;
+
+        private Builder() {
+        }
+
+        public Builder maxDebth(int maxDebth) {
+            this.maxDebth = maxDebth;
+            return this;
+        }
+
+        public Builder failHandler(FailHandler<Exception> failHandler) {
+            this.failHandler = failHandler;
+            return this;
+        }
+
+        public Builder mode(Mode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * @param compiledSerializers Whether serializers generated at compile time for classes annotated with
+         *                            {@link org.kurodev.serializers.exception.GenerateSerializer} are used. Enabled by default.
+         */
+        public Builder compiledSerializers(boolean compiledSerializers) {
+            this.compiledSerializers = compiledSerializers;
+            return this;
+        }
+
+        /**
+         * @param compact Whether ints and longs are written as zigzag varints and string lengths as varints,
+         *                which makes small values a lot smaller. Disabled by default,
+         *                bytes written in one format can not be read in the other.
+         */
+        public Builder compact(boolean compact) {
+            this.compact = compact;
+            return this;
+        }
+
+        /**
+         * @param referenceTracking Whether an object that is reachable several times is only written once,
+         *                          later occurrences refer back to it. This preserves shared objects and allows cycles.
+         *                          Each nested object is preceded by a varint tag, 0 when the object follows,
+         *                          otherwise the id of an earlier object + 1. Ids are assigned in the order objects are
+         *                          first written, starting with 0 for the outermost one. Arrays, collections and strings
+         *                          are not tracked, only the objects within them. Disabled by default.
+         *                          While enabled, objects are always read reflectively rather than through
+         *                          a {@link ClassSerializer}, as those create the object too late to resolve cycles.
+         */
+        public Builder referenceTracking(boolean referenceTracking) {
+            this.referenceTracking = referenceTracking;
+            return this;
+        }
+
+        /**
+         * @param nullFields Whether reference-typed fields may be {@code null}. Each object is then preceded by a bitmap
+         *                   with one bit per such field in field order, set if the field is present, padded to whole bytes.
+         *                   Absent fields are left out entirely. Objects without such fields are written as before.
+         *                   Disabled by default, in which case writing a {@code null} string or object fails.
+         *                   While enabled, classes with such fields are always handled reflectively rather than through
+         *                   a {@link ClassSerializer}.
+         */
+        public Builder nullFields(boolean nullFields) {
+            this.nullFields = nullFields;
+            return this;
+        }
+
+        /**
+         * @param schemaEvolution Whether objects can be read by later versions of their classes, which may have added,
+         *                        removed or reordered fields. Fields are matched by name, those with a different type
+         *                        are treated as removed. Added fields keep their default value.
+         *                        The schema of each class, its field names and types, is written once per stream
+         *                        and each object is preceded by the varint number of its schema.
+         *                        The mapping of a schema onto a class is cached, so objects of a known schema
+         *                        are read as fast as without schemas. Disabled by default.
+         *                        While enabled, objects are always handled reflectively rather than through
+         *                        a {@link ClassSerializer}.
+         */
+        public Builder schemaEvolution(boolean schemaEvolution) {
+            this.schemaEvolution = schemaEvolution;
+            return this;
+        }
+
+        /**
+         * @param fieldPolicy Which fields are serialized, {@link FieldPolicy#DEFAULT} skips {@code transient} fields
+         *                    and those annotated with {@link org.kurodev.serializers.exception.Exclude}.
+         *                    Static and synthetic fields are never serialized.
+         *                    Compiled serializers are only used with the default policy.
+         */
+        public Builder fieldPolicy(FieldPolicy fieldPolicy) {
+            this.fieldPolicy = fieldPolicy;
+            return this;
+        }
+
+        /**
+         * @param stringTable Whether a string that occurs several times within an outermost object is only written once,
+         *                    later occurrences refer back to it. Each string is preceded by a varint tag, 0 when the
+         *                    string follows, otherwise the index of an earlier string + 1. Indices are assigned in the
+         *                    order strings are first written, starting with 0 for each outermost object,
+         *                    so frames of an {@link ObjectWriter} remain independent of each other. Disabled by default.
+         */
+        public Builder stringTable(boolean stringTable) {
+            this.stringTable = stringTable;
+            return this;
+        }
+
+        /**
+         * @param stringCache The amount of decoded short strings kept for reuse while reading, so strings that are
+         *                    read repeatedly, e.g. status codes or host names, are not allocated again.
+         *                    Rounded up to a power of two, 0 disables the cache. This does not affect the wire format.
+         *                    Disabled by default.
+         */
+        public Builder stringCache(int stringCache) {
+            if (stringCache < 0) {
+                throw new IllegalArgumentException("Cache size must not be negative: " + stringCache);
+            }
+            this.stringCache = stringCache;
+            return this;
+        }
+
+        /**
+         * Collection fields are read into a new instance of their declared type, {@link java.util.List} fields
+         * into an {@link java.util.ArrayList} etc. This creates the collections of the given type instead.
+         *
+         * @param type    The declared type of the fields
+         * @param factory Creates a collection for the given amount of elements
+         */
+        public <C extends Collection<?>> Builder collectionFactory(Class<C> type, IntFunction<? extends C> factory) {
+            factories.put(type, factory);
+            return this;
+        }
+
+        /**
+         * @see #collectionFactory(Class, IntFunction)
+         */
+        public <M extends Map<?, ?>> Builder mapFactory(Class<M> type, IntFunction<? extends M> factory) {
+            factories.put(type, factory);
+            return this;
+        }
+
+        /**
+         * Registers a custom encoding for a class, which takes precedence over all other ways of serializing it.
+         * Replaces a built-in or previously registered serializer of the same class.
+         *
+         * @throws IllegalArgumentException if the class is a primitive, wrapper, String, array, collection or map,
+         *                                  which are always written by their {@link DataType}
+         */
+        public Builder typeSerializer(TypeSerializer<?> serializer) {
+            if (DataType.identify(serializer.getType()) != DataType.OBJECT) {
+                throw new IllegalArgumentException("Can not register a serializer for " + serializer.getType().getName()
+                        + ", it is always written as " + DataType.identify(serializer.getType()));
+            }
+            typeSerializers.add(serializer);
+            return this;
+        }
+
+        /**
+         * @param builtInTypeSerializers Whether the serializers for {@link java.util.UUID}, {@link java.math.BigDecimal},
+         *                               the {@link java.time} types etc. are registered. Enabled by default.
+         */
+        public Builder builtInTypeSerializers(boolean builtInTypeSerializers) {
+            this.builtInTypeSerializers = builtInTypeSerializers;
+            return this;
+        }
+
+        public ObjectSerializer build() {
+            return new ObjectSerializer(this);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.kurodev.serializers;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A serialized object whose fields are only decoded when asked for, without creating the object itself.
+ * <p>
+ * The first access to a field skips over the fields written before it, without decoding or allocating them,
+ * and remembers where each of them starts. That table of offsets is built once per view,
+ * every later access to any field already passed jumps straight to its bytes.
+ * Nested objects, strings and containers are skipped alike, only the value of the requested field is created.
+ * <p>
+ * With schema evolution fields are looked up by the name they were written with, so views work across versions
+ * of a class the same way reading it does. A field hiding one of a superclass is looked up rather than the hidden one.
+ * A view is not thread-safe.
+ *
+ * @see ObjectSerializer#view(byte[], Class)
+ */
+public final class ObjectView {
+    private final ObjectSerializer serializer;
+    private final DataReader reader;
+    private final ClassPlan plan;
+    private final Schema schema;
+    private final FieldPlan[] targets;
+    private final byte[] presence;
+    private final int[] offsets;
+    private int scanned;
+    private int nullableScanned;
+    private int position;
+
+    ObjectView(ObjectSerializer serializer, DataReader reader, ClassPlan plan) throws IOException {
+        this.serializer = serializer;
+        this.reader = reader;
+        this.plan = plan;
+        SchemaTable schemas = reader.getSchemas();
+        if (schemas != null) {
+            schemas.readDefinitions(reader);
+            this.schema = schemas.get(reader.readVarInt());
+        } else {
+            this.schema = plan.getSchema();
+        }
+        this.targets = schema.resolve(plan);
+        int nullable = serializer.isNullFields() ? schema.getNullableFieldCount() : 0;
+        this.presence = nullable > 0 ? reader.readBytes((nullable + 7) >>> 3) : null;
+        this.offsets = new int[schema.getFieldCount()];
+        this.position = reader.position();
+    }
+
+    /**
+     * @return The class the view was created for
+     */
+    public Class<?> getType() {
+        return plan.getType();
+    }
+
+    /**
+     * @return The schema the object was written with, which is that of its class unless schema evolution is enabled
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return Whether the object was written with a field of the given name that the class still declares
+     */
+    public boolean has(String field) {
+        int index = indexOf(field);
+        return index >= 0 && targets[index] != null;
+    }
+
+    /**
+     * Decodes a single field of the object, primitives are boxed.
+     *
+     * @param field The name of the field
+     * @return The value of the field, {@code null} if it was written as absent
+     * @throws IllegalArgumentException if the object has no such field
+     */
+    public Object get(String field) throws IOException {
+        int index = indexOf(field);
+        if (index < 0 || targets[index] == null) {
+            throw new IllegalArgumentException("No field " + field + " in " + schema.getType() + " to read as a field of " + getType().getName());
+        }
+        int offset = offset(index);
+        if (offset < 0) {
+            return null;
+        }
+        reader.position(offset);
+        return serializer.readValue(targets[index].getDescriptor(), reader, 0);
+    }
+
+    /**
+     * @param type The class of the value, or its wrapper for primitives
+     * @see #get(String)
+     */
+    public <T> T get(String field, Class<T> type) throws IOException {
+        return type.cast(get(field));
+    }
+
+    /**
+     * @return The amount of fields whose offset is known so far
+     */
+    int getScannedFieldCount() {
+        return scanned;
+    }
+
+    /**
+     * Superclass fields are written first, so the last field of a name is the one declared furthest down the hierarchy,
+     * the same field the name refers to in the class itself.
+     */
+    private int indexOf(String field) {
+        for (int i = schema.getFieldCount() - 1; i >= 0; i--) {
+            if (schema.getName(i).equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips ahead to the given field, unless its offset is known already.
+     *
+     * @return The offset of the field, or -1 if it was written as absent
+     */
+    private int offset(int field) throws IOException {
+        while (scanned <= field) {
+            int index = scanned++;
+            if (presence != null && schema.isNullable(index)) {
+                int bit = nullableScanned++;
+                if ((presence[bit >>> 3] >>> (bit & 7) & 1) == 0) {
+                    offsets[index] = -1;
+                    continue;
+                }
+            }
+            offsets[index] = position;
+            reader.position(position);
+            if (targets[index] != null) {
+                serializer.skipValue(targets[index].getDescriptor(), reader, 0);
+            } else {
+                serializer.skipValue(schema.getSignature(index), 0, reader, 0);
+            }
+            position = reader.position();
+        }
+        return offsets[field];
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectView{" + getType().getName() + ", offsets=" + Arrays.toString(Arrays.copyOf(offsets, scanned)) + '}';
+    }
+}
@@ -0,0 +1,75 @@
+package org.kurodev.serializers;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes any number of objects to a single stream, each as a frame of its length followed by the object.
+ * The frames can be read back one at a time with an {@link ObjectReader}.
+ * <p>
+ * Objects are buffered and only reach the stream when the buffer is full or on {@link #flush()}.
+ */
+public class ObjectWriter implements Closeable, Flushable {
+    private final ObjectSerializer serializer;
+    private final DataWriter out;
+    private final DataWriter frame = new DataWriter();
+    private long count;
+
+    /**
+     * @param serializer The serializer used to write the objects
+     * @param out        The stream to write to
+     */
+    public ObjectWriter(ObjectSerializer serializer, OutputStream out) {
+        this(serializer, new DataWriter(out));
+    }
+
+    /**
+     * @param serializer The serializer used to write the objects
+     * @param channel    The blocking channel to write to
+     */
+    public ObjectWriter(ObjectSerializer serializer, WritableByteChannel channel) {
+        this(serializer, new DataWriter(channel, DataWriter.DEFAULT_BUFFER_SIZE));
+    }
+
+    ObjectWriter(ObjectSerializer serializer, DataWriter out) {
+        this.serializer = serializer;
+        this.out = out;
+        //only the objects follow the wire format of the serializer, frame lengths are always 4 bytes
+        serializer.configure(frame);
+    }
+
+    /**
+     * Appends the object as a new frame.
+     */
+    public void write(Object obj) throws IOException {
+        //the frame length is only known once the object is written
+        frame.reset();
+        serializer.write(obj, frame, 0);
+        out.write(frame.size());
+        frame.writeTo(out);
+        count++;
+    }
+
+    /**
+     * @return The amount of objects written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
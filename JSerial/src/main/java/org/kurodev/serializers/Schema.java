@@ -0,0 +1,211 @@
+package org.kurodev.serializers;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The field layout of a class as it was written: the class name and the name and {@link TypeDescriptor#getSignature()
+ * signature} of each field in wire order, identified by a hash over all of them.
+ * <p>
+ * Schemas read by an {@link ObjectSerializer} are interned by it, so equal schemas read from any number of streams
+ * share one instance and with it the cached mapping of their fields onto each class they are read as.
+ *
+ * @see ObjectSerializer.Builder#schemaEvolution(boolean)
+ */
+public final class Schema {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private final String type;
+    private final String[] names;
+    private final String[] signatures;
+    private final boolean[] nullable;
+    private final int nullableFields;
+    private final long hash;
+    private final FieldPlan[] skipped;
+    private final ConcurrentMap<Class<?>, FieldPlan[]> resolutions = new ConcurrentHashMap<>();
+
+    private Schema(String type, String[] names, String[] signatures) {
+        this.type = type;
+        this.names = names;
+        this.signatures = signatures;
+        this.nullable = new boolean[signatures.length];
+        int count = 0;
+        for (int i = 0; i < signatures.length; i++) {
+            nullable[i] = !isPrimitive(signatures[i]);
+            if (nullable[i]) {
+                count++;
+            }
+        }
+        this.nullableFields = count;
+        this.hash = hash(type, names, signatures);
+        this.skipped = new FieldPlan[names.length];
+    }
+
+    static Schema of(ClassPlan plan) {
+        FieldPlan[] fields = plan.fields();
+        String[] names = new String[fields.length];
+        String[] signatures = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getName();
+            signatures[i] = fields[i].getDescriptor().getSignature();
+        }
+        return new Schema(plan.getType().getName(), names, signatures);
+    }
+
+    /**
+     * Reads a schema written by {@link #write(DataWriter)}.
+     *
+     * @throws IOException if the schema does not match its hash
+     */
+    static Schema read(DataReader reader) throws IOException {
+        long hash = reader.readLong();
+        //schemas precede the object, they must not take part in its string deduplication
+        String type = reader.readPlainString();
+        int count = reader.readVarInt();
+        String[] names = new String[count];
+        String[] signatures = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = reader.readPlainString();
+            signatures[i] = reader.readPlainString();
+        }
+        Schema schema = new Schema(type, names, signatures);
+        if (schema.hash != hash) {
+            throw new IOException("Schema of " + type + " does not match its hash");
+        }
+        return schema;
+    }
+
+    private static long hash(String type, String[] names, String[] signatures) {
+        long hash = hash(FNV_OFFSET, type);
+        for (int i = 0; i < names.length; i++) {
+            hash = hash(hash(hash, names[i]), signatures[i]);
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        //separates consecutive strings, which never contain a 0 character themselves
+        return hash * FNV_PRIME;
+    }
+
+    static boolean isPrimitive(String signature) {
+        return signature.length() == 1 && Character.isLowerCase(signature.charAt(0));
+    }
+
+    /**
+     * A primitive and its wrapper are written the same way, everything else has to match exactly.
+     */
+    private static boolean isCompatible(String written, String read) {
+        return written.equals(read) || (written.length() == 1 && written.equalsIgnoreCase(read));
+    }
+
+    void write(DataWriter writer) throws IOException {
+        writer.write(hash);
+        writer.writePlain(type);
+        writer.writeVarInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            writer.writePlain(names[i]);
+            writer.writePlain(signatures[i]);
+        }
+    }
+
+    /**
+     * Maps the fields of this schema onto the fields of the plan with the same name and a compatible type.
+     * A field hiding one of a superclass has the same name as it, such fields are matched in the order they are written.
+     * The mapping is cached for each class, the schema of the plan and equal ones map onto its fields as they are.
+     *
+     * @return For each field of this schema the field of the plan it is read into, or {@code null} to skip it
+     */
+    FieldPlan[] resolve(ClassPlan plan) {
+        if (plan.getSchema() == this) {
+            return plan.fields();
+        }
+        return resolutions.computeIfAbsent(plan.getType(), type -> {
+            if (equals(plan.getSchema())) {
+                return plan.fields();
+            }
+            FieldPlan[] fields = plan.fields();
+            FieldPlan[] targets = new FieldPlan[names.length];
+            boolean[] claimed = new boolean[fields.length];
+            for (int i = 0; i < names.length; i++) {
+                for (int j = 0; j < fields.length; j++) {
+                    if (!claimed[j] && fields[j].getName().equals(names[i])) {
+                        //claimed even if incompatible, a later field of the same name must not be read into it
+                        claimed[j] = true;
+                        if (isCompatible(signatures[i], fields[j].getDescriptor().getSignature())) {
+                            targets[i] = fields[j];
+                        }
+                        break;
+                    }
+                }
+            }
+            return targets;
+        });
+    }
+
+    /**
+     * @return No field for each field of this schema, to read past an object without reading it into anything
+     */
+    FieldPlan[] skipped() {
+        return skipped;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public int getFieldCount() {
+        return names.length;
+    }
+
+    public String getName(int field) {
+        return names[field];
+    }
+
+    public String getSignature(int field) {
+        return signatures[field];
+    }
+
+    boolean isNullable(int field) {
+        return nullable[field];
+    }
+
+    int getNullableFieldCount() {
+        return nullableFields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Schema other)) {
+            return false;
+        }
+        return hash == other.hash && type.equals(other.type)
+                && Arrays.equals(names, other.names) && Arrays.equals(signatures, other.signatures);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Schema{").append(type);
+        for (int i = 0; i < names.length; i++) {
+            builder.append(i == 0 ? "[" : ", ").append(names[i]).append(' ').append(signatures[i]);
+        }
+        return builder.append(names.length == 0 ? "}" : "]}").toString();
+    }
+}
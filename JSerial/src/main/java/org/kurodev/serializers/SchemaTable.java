@@ -0,0 +1,89 @@
+package org.kurodev.serializers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The schemas of a single stream, numbered in the order they are first used. Each schema is written to the stream
+ * only once, ahead of the outermost object that first uses it, and afterwards only referred to by its number.
+ *
+ * @see ObjectSerializer.Builder#schemaEvolution(boolean)
+ */
+final class SchemaTable {
+    private final Map<Class<?>, Integer> ids = new IdentityHashMap<>();
+    private final List<Schema> schemas = new ArrayList<>();
+    private final ClassPlanCache plans;
+    private int written;
+    private DataWriter body;
+
+    /**
+     * @param plans The cache of the serializer, the schemas read are interned by it
+     */
+    SchemaTable(ClassPlanCache plans) {
+        this.plans = plans;
+    }
+
+    /**
+     * @return The number of the schema of the given class, which is assigned if it is used for the first time
+     */
+    int id(ClassPlan plan) {
+        Integer id = ids.get(plan.getType());
+        if (id == null) {
+            id = schemas.size();
+            ids.put(plan.getType(), id);
+            schemas.add(plan.getSchema());
+        }
+        return id;
+    }
+
+    Schema get(int id) throws IOException {
+        if (id < 0 || id >= schemas.size()) {
+            throw new IOException("Unknown schema " + id + ", " + schemas.size() + " have been read");
+        }
+        return schemas.get(id);
+    }
+
+    /**
+     * The outermost object is written into this buffer first, as the schemas it uses precede it.
+     *
+     * @param writer The writer the object ends up in
+     * @return The empty buffer, configured like the given writer
+     */
+    DataWriter body(DataWriter writer) {
+        if (body == null) {
+            body = new DataWriter();
+            body.setSchemas(this);
+        }
+        body.setCompact(writer.isCompact());
+        body.setReferences(writer.getReferences());
+        body.setStrings(writer.getStrings());
+        body.reset();
+        return body;
+    }
+
+    /**
+     * Writes the amount of schemas that have been numbered since the last call, followed by these schemas.
+     */
+    void writeDefinitions(DataWriter writer) throws IOException {
+        writer.writeVarInt(schemas.size() - written);
+        for (; written < schemas.size(); written++) {
+            schemas.get(written).write(writer);
+        }
+    }
+
+    /**
+     * @see #writeDefinitions(DataWriter)
+     */
+    void readDefinitions(DataReader reader) throws IOException {
+        int count = reader.readVarInt();
+        if (count < 0) {
+            throw new IOException("Invalid schema count: " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            schemas.add(plans.intern(Schema.read(reader)));
+        }
+    }
+}
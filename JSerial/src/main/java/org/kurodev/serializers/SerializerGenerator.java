@@ -0,0 +1,313 @@
+package org.kurodev.serializers;
+
+import org.kurodev.DataType;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.objenesis.instantiator.ObjectInstantiator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Emits a {@link ClassSerializer} per class as a hidden class nested in the serialized class,
+ * consisting of straight-line calls into {@link DataWriter} and {@link DataReader}.
+ * <p>
+ * Non-final primitive and String fields are accessed directly, every other field is delegated back to the
+ * {@link ObjectSerializer} so the output stays byte-identical to the reflective mode.
+ * Classes that cannot be generated for yield {@code null} and are left to the reflective path.
+ */
+class SerializerGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(SerializerGenerator.class);
+    private static final String SUFFIX = "$$JSerialSerializer";
+    private static final String FIELDS = "fields";
+    private static final String INSTANTIATOR = "instantiator";
+    private static final String SERIALIZER = Type.getInternalName(ObjectSerializer.class);
+    private static final String WRITER = Type.getInternalName(DataWriter.class);
+    private static final String READER = Type.getInternalName(DataReader.class);
+    private static final String FIELD_PLANS = Type.getDescriptor(FieldPlan[].class);
+    private static final String OBJECT_INSTANTIATOR = Type.getInternalName(ObjectInstantiator.class);
+    /**
+     * Cached for classes that could not be generated for, so they are not attempted again.
+     */
+    private static final Object NOT_GENERATED = new Object();
+    private final ConcurrentMap<Class<?>, Object> serializers = new ConcurrentHashMap<>();
+
+    /**
+     * @param plan The plan of the class to get the serializer for
+     * @return The generated serializer, or {@code null} if none could be generated
+     */
+    @SuppressWarnings("unchecked")
+    <T> ClassSerializer<T> get(ClassPlan plan) {
+        Object serializer = serializers.get(plan.getType());
+        if (serializer == null) {
+            Object created = generate(plan);
+            serializer = serializers.putIfAbsent(plan.getType(), created);
+            if (serializer == null) {
+                serializer = created;
+            }
+        }
+        return serializer == NOT_GENERATED ? null : (ClassSerializer<T>) serializer;
+    }
+
+    private static boolean canGenerate(Class<?> type) {
+        //records are created through their canonical constructor rather than an instantiator
+        if (type.isHidden() || type.isArray() || type.isPrimitive() || type.isInterface() || type.isRecord()
+                || Modifier.isAbstract(type.getModifiers())) {
+            return false;
+        }
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null) {
+            return false;
+        }
+        //the generated class is defined in the loader of the serialized class and must link against this library
+        try {
+            return Class.forName(ClassSerializer.class.getName(), false, loader) == ClassSerializer.class
+                    && Class.forName(ObjectInstantiator.class.getName(), false, loader) == ObjectInstantiator.class;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param target The internal name of the serialized class, only its own fields are accessible to its nestmates
+     */
+    private static boolean isInlined(FieldPlan field, String target) {
+        int modifiers = field.getField().getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)
+                || !Type.getInternalName(field.getField().getDeclaringClass()).equals(target)) {
+            return false;
+        }
+        Class<?> type = field.getType();
+        return type.isPrimitive() || type == String.class || (type.isArray() && type.getComponentType().isPrimitive());
+    }
+
+    /**
+     * @return The generated serializer, or {@link #NOT_GENERATED}
+     */
+    private Object generate(ClassPlan plan) {
+        Class<?> type = plan.getType();
+        if (!canGenerate(type)) {
+            return NOT_GENERATED;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            byte[] bytes = emit(plan);
+            //as a nestmate the generated class may access the private fields of the serialized class
+            MethodHandles.Lookup hidden = lookup.defineHiddenClass(bytes, true, MethodHandles.Lookup.ClassOption.NESTMATE);
+            return (ClassSerializer<?>) hidden.findConstructor(hidden.lookupClass(),
+                            MethodType.methodType(void.class, FieldPlan[].class, ObjectInstantiator.class))
+                    .invoke(plan.fields(), plan.getInstantiator());
+        } catch (Throwable e) {
+            logger.debug("Could not generate serializer for {}, falling back to reflection", type, e);
+            return NOT_GENERATED;
+        }
+    }
+
+    private byte[] emit(ClassPlan plan) {
+        String target = Type.getInternalName(plan.getType());
+        String name = target + SUFFIX;
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V16, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, name, null, "java/lang/Object",
+                new String[]{Type.getInternalName(ClassSerializer.class)});
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, FIELDS, FIELD_PLANS, null, null).visitEnd();
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, INSTANTIATOR, Type.getDescriptor(ObjectInstantiator.class), null, null).visitEnd();
+        emitConstructor(cw, name);
+        emitGetType(cw, target);
+        emitWrite(cw, name, target, plan.fields());
+        emitRead(cw, name, target, plan.fields());
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private void emitConstructor(ClassWriter cw, String name) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>",
+                Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(FieldPlan[].class), Type.getType(ObjectInstantiator.class)), null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitFieldInsn(PUTFIELD, name, FIELDS, FIELD_PLANS);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitFieldInsn(PUTFIELD, name, INSTANTIATOR, Type.getDescriptor(ObjectInstantiator.class));
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void emitGetType(ClassWriter cw, String target) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "getType", "()Ljava/lang/Class;", null, null);
+        mv.visitCode();
+        mv.visitLdcInsn(Type.getObjectType(target));
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * void write(Object obj, DataWriter writer, ObjectSerializer serializer, int debth)
+     */
+    private void emitWrite(ClassWriter cw, String name, String target, FieldPlan[] fields) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "write",
+                "(Ljava/lang/Object;L" + WRITER + ";L" + SERIALIZER + ";I)V", null, new String[]{"java/io/IOException"});
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, target);
+        mv.visitVarInsn(ASTORE, 5);
+        for (int i = 0; i < fields.length; i++) {
+            FieldPlan field = fields[i];
+            if (isInlined(field, target)) {
+                Field f = field.getField();
+                if (!f.getType().isPrimitive()) {
+                    emitNullCheck(mv, name, target, field);
+                }
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitVarInsn(ALOAD, 5);
+                mv.visitFieldInsn(GETFIELD, target, f.getName(), Type.getDescriptor(f.getType()));
+                mv.visitMethodInsn(INVOKEVIRTUAL, WRITER, writeMethod(field), writeDescriptor(field), false);
+            } else {
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitVarInsn(ALOAD, 1);
+                loadFieldPlan(mv, name, i);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitVarInsn(ILOAD, 4);
+                mv.visitMethodInsn(INVOKEVIRTUAL, SERIALIZER, "writeField",
+                        "(Ljava/lang/Object;" + Type.getDescriptor(FieldPlan.class) + "L" + WRITER + ";I)V", false);
+            }
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Fails on a null String the same way {@link ObjectSerializer#writeValue} does,
+     * arrays encode {@code null} themselves and pass.
+     */
+    private void emitNullCheck(MethodVisitor mv, String name, String target, FieldPlan field) {
+        String message = ObjectSerializer.nullValueMessage(field.getDescriptor());
+        if (message == null) {
+            return;
+        }
+        Field f = field.getField();
+        Label present = new Label();
+        mv.visitVarInsn(ALOAD, 5);
+        mv.visitFieldInsn(GETFIELD, target, f.getName(), Type.getDescriptor(f.getType()));
+        mv.visitJumpInsn(IFNONNULL, present);
+        mv.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn(message);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+        mv.visitInsn(ATHROW);
+        mv.visitLabel(present);
+        mv.visitFrame(F_FULL, 6, new Object[]{name, "java/lang/Object", WRITER, SERIALIZER, INTEGER, target}, 0, new Object[0]);
+    }
+
+    /**
+     * Object read(DataReader reader, ObjectSerializer serializer, int debth)
+     */
+    private void emitRead(ClassWriter cw, String name, String target, FieldPlan[] fields) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "read",
+                "(L" + READER + ";L" + SERIALIZER + ";I)Ljava/lang/Object;", null, new String[]{"java/io/IOException"});
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, name, INSTANTIATOR, Type.getDescriptor(ObjectInstantiator.class));
+        mv.visitMethodInsn(INVOKEINTERFACE, OBJECT_INSTANTIATOR, "newInstance", "()Ljava/lang/Object;", true);
+        mv.visitTypeInsn(CHECKCAST, target);
+        mv.visitVarInsn(ASTORE, 4);
+        for (int i = 0; i < fields.length; i++) {
+            FieldPlan field = fields[i];
+            if (isInlined(field, target)) {
+                Field f = field.getField();
+                String descriptor = Type.getDescriptor(f.getType());
+                mv.visitVarInsn(ALOAD, 4);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEVIRTUAL, READER, readMethod(field), "()" + descriptor, false);
+                mv.visitFieldInsn(PUTFIELD, target, f.getName(), descriptor);
+            } else {
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitVarInsn(ALOAD, 4);
+                loadFieldPlan(mv, name, i);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ILOAD, 3);
+                mv.visitMethodInsn(INVOKEVIRTUAL, SERIALIZER, "readField",
+                        "(Ljava/lang/Object;" + Type.getDescriptor(FieldPlan.class) + "L" + READER + ";I)V", false);
+            }
+        }
+        mv.visitVarInsn(ALOAD, 4);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void loadFieldPlan(MethodVisitor mv, String name, int index) {
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, name, FIELDS, FIELD_PLANS);
+        mv.visitLdcInsn(index);
+        mv.visitInsn(AALOAD);
+    }
+
+    private static String writeMethod(FieldPlan field) {
+        return switch (field.getDataType()) {
+            case ARRAY -> "writeArray";
+            case BYTE -> "writeByte";
+            default -> "write";
+        };
+    }
+
+    private static String writeDescriptor(FieldPlan field) {
+        return switch (field.getDataType()) {
+            case ARRAY -> "(" + Type.getDescriptor(field.getType()) + ")V";
+            case BOOLEAN -> "(Z)V";
+            case BYTE, INTEGER -> "(I)V";
+            case CHAR -> "(C)V";
+            case DOUBLE -> "(D)V";
+            case FLOAT -> "(F)V";
+            case LONG -> "(J)V";
+            case SHORT -> "(S)V";
+            case STRING -> "(Ljava/lang/String;)V";
+            default -> throw new IllegalStateException("Unexpected value: " + field.getDataType());
+        };
+    }
+
+    private static String readMethod(FieldPlan field) {
+        return switch (field.getDataType()) {
+            case ARRAY -> arrayReadMethod(field.getType().getComponentType());
+            case BOOLEAN -> "readBool";
+            case BYTE -> "readByte";
+            case CHAR -> "readChar";
+            case DOUBLE -> "readDouble";
+            case FLOAT -> "readFloat";
+            case INTEGER -> "readInt";
+            case LONG -> "readLong";
+            case SHORT -> "readShort";
+            case STRING -> "readString";
+            default -> throw new IllegalStateException("Unexpected value: " + field.getDataType());
+        };
+    }
+
+    private static String arrayReadMethod(Class<?> component) {
+        return switch (DataType.identify(component)) {
+            case BOOLEAN -> "readBooleanArray";
+            case BYTE -> "readByteArray";
+            case CHAR -> "readCharArray";
+            case DOUBLE -> "readDoubleArray";
+            case FLOAT -> "readFloatArray";
+            case INTEGER -> "readIntArray";
+            case LONG -> "readLongArray";
+            case SHORT -> "readShortArray";
+            default -> throw new IllegalStateException("Unexpected component: " + component);
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package org.kurodev.serializers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A bounded cache of decoded strings, keyed by their UTF-8 bytes, so repeated short strings are read
+ * without allocating a new string each time. Each string has exactly one slot it may be cached in,
+ * a string that is read replaces whatever occupied its slot before.
+ * <p>
+ * The cache is shared by all readers of an {@link ObjectSerializer}. Slots are replaced without locking,
+ * entries are immutable so a reader sees either the old or the new one.
+ *
+ * @see ObjectSerializer.Builder#stringCache(int)
+ */
+final class StringCache {
+    /**
+     * Longer strings are rarely repeated and more expensive to compare, they are always decoded.
+     */
+    static final int MAX_LENGTH = 64;
+    private final Entry[] entries;
+
+    /**
+     * @param size The amount of slots, rounded up to a power of two
+     */
+    StringCache(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + size);
+        }
+        entries = new Entry[size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1];
+    }
+
+    /**
+     * @return The string encoded by the given bytes, decoded or taken from the cache
+     */
+    String get(byte[] bytes, int offset, int length) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        int slot = (hash ^ hash >>> 16) & (entries.length - 1);
+        Entry entry = entries[slot];
+        if (entry != null && entry.hash == hash && Arrays.equals(entry.bytes, 0, entry.bytes.length, bytes, offset, offset + length)) {
+            return entry.value;
+        }
+        String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        entries[slot] = new Entry(hash, Arrays.copyOfRange(bytes, offset, offset + length), value);
+        return value;
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    private record Entry(int hash, byte[] bytes, String value) {
+    }
+}
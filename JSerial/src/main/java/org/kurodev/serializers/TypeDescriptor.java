@@ -0,0 +1,176 @@
+package org.kurodev.serializers;
+
+import org.kurodev.DataType;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+
+/**
+ * The declared type of a value together with its {@link DataType}, resolved once so values can be written
+ * without inspecting their class. Containers also carry the descriptors of what they hold:
+ * the component of an array, the element of a collection or the key and value of a map.
+ * <p>
+ * Type arguments are taken from the declared type as written, e.g. {@code List<String>} or {@code Map<String, int[]>}.
+ * Raw types, type variables and wildcards resolve to their bound, so a raw {@code List} holds {@link Object}s.
+ */
+public final class TypeDescriptor {
+    private static final TypeDescriptor[] NONE = new TypeDescriptor[0];
+    private static final ClassValue<TypeDescriptor> RAW = new ClassValue<>() {
+        @Override
+        protected TypeDescriptor computeValue(Class<?> type) {
+            return create(type, null);
+        }
+    };
+    private final Class<?> type;
+    private final DataType dataType;
+    private final TypeDescriptor[] arguments;
+    private final String signature;
+
+    private TypeDescriptor(Class<?> type, DataType dataType, TypeDescriptor[] arguments) {
+        this.type = type;
+        this.dataType = dataType;
+        this.arguments = arguments;
+        this.signature = signature(type, dataType, arguments);
+    }
+
+    private static String signature(Class<?> type, DataType dataType, TypeDescriptor[] arguments) {
+        String code = switch (dataType) {
+            case BOOLEAN -> "Z";
+            case BYTE -> "B";
+            case CHAR -> "C";
+            case DOUBLE -> "D";
+            case FLOAT -> "F";
+            case INTEGER -> "I";
+            case LONG -> "J";
+            case SHORT -> "S";
+            case STRING -> "T";
+            case ARRAY -> "[";
+            case COLLECTION -> "<";
+            case MAP -> "{";
+            case OBJECT -> "L" + type.getName() + ";";
+        };
+        if (type.isPrimitive()) {
+            return code.toLowerCase();
+        }
+        StringBuilder signature = new StringBuilder(code);
+        for (TypeDescriptor argument : arguments) {
+            signature.append(argument.signature);
+        }
+        return signature.toString();
+    }
+
+    /**
+     * @return The cached descriptor of the raw class
+     */
+    public static TypeDescriptor of(Class<?> type) {
+        return RAW.get(type);
+    }
+
+    public static TypeDescriptor of(Field field) {
+        return of(field.getGenericType());
+    }
+
+    /**
+     * @param owner The class declaring the field
+     * @param field The name of the field
+     * @apiNote Used by generated {@link ClassSerializer}s, which only know their fields by name
+     */
+    public static TypeDescriptor of(Class<?> owner, String field) {
+        try {
+            return of(owner.getDeclaredField(field));
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException(owner.getName() + " has no field " + field, e);
+        }
+    }
+
+    public static TypeDescriptor of(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return of(clazz);
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            return create((Class<?>) parameterized.getRawType(), parameterized.getActualTypeArguments());
+        }
+        if (type instanceof GenericArrayType array) {
+            TypeDescriptor component = of(array.getGenericComponentType());
+            Class<?> raw = component.type.arrayType();
+            return new TypeDescriptor(raw, DataType.ARRAY, new TypeDescriptor[]{component});
+        }
+        if (type instanceof WildcardType wildcard) {
+            return of(wildcard.getUpperBounds()[0]);
+        }
+        if (type instanceof TypeVariable<?> variable) {
+            return of(variable.getBounds()[0]);
+        }
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    /**
+     * @param typeArguments The declared type arguments, or {@code null} for a raw type
+     */
+    private static TypeDescriptor create(Class<?> type, Type[] typeArguments) {
+        DataType dataType = DataType.identify(type);
+        TypeDescriptor[] arguments = switch (dataType) {
+            case ARRAY -> new TypeDescriptor[]{of(type.getComponentType())};
+            case COLLECTION -> new TypeDescriptor[]{argument(typeArguments, 0)};
+            case MAP -> new TypeDescriptor[]{argument(typeArguments, 0), argument(typeArguments, 1)};
+            default -> NONE;
+        };
+        return new TypeDescriptor(type, dataType, arguments);
+    }
+
+    private static TypeDescriptor argument(Type[] typeArguments, int index) {
+        if (typeArguments == null || index >= typeArguments.length) {
+            return of(Object.class);
+        }
+        return of(typeArguments[index]);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    /**
+     * How values of this type are laid out on the wire, as written into a {@link Schema}:
+     * {@code z b c d f i j s} for primitives, the same in upper case for their wrappers, {@code T} for strings,
+     * {@code [}, {@code <} and <code>{</code> followed by the signatures of the component, element or key and value
+     * for arrays, collections and maps and {@code L<class name>;} for objects.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * @return The component of an array, or the element of a collection
+     */
+    public TypeDescriptor getElement() {
+        return arguments[0];
+    }
+
+    /**
+     * @return The key of a map
+     */
+    public TypeDescriptor getKey() {
+        return arguments[0];
+    }
+
+    /**
+     * @return The value of a map
+     */
+    public TypeDescriptor getValue() {
+        return arguments[1];
+    }
+
+    @Override
+    public String toString() {
+        return arguments.length == 0 ? type.getSimpleName() : type.getSimpleName() + Arrays.toString(arguments);
+    }
+}
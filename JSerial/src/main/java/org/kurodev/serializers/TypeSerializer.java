@@ -0,0 +1,82 @@
+package org.kurodev.serializers;
+
+import java.io.IOException;
+
+/**
+ * A custom encoding for values of a single class, e.g. a {@link java.util.UUID} as two longs.
+ * Registered through {@link ObjectSerializer.Builder#typeSerializer(TypeSerializer)}, it takes precedence over
+ * every other way of serializing that class. Serializers for common JDK value types are registered by default.
+ * Primitives, their wrappers, Strings, arrays, collections and maps always keep their own encoding and can not be registered.
+ *
+ * @param <T> The serialized class, values of subclasses are not handled
+ */
+public interface TypeSerializer<T> {
+
+    /**
+     * Creates a serializer from a pair of functions.
+     */
+    static <T> TypeSerializer<T> of(Class<T> type, Encoder<? super T> encoder, Decoder<? extends T> decoder) {
+        return of(type, encoder, decoder, decoder::read);
+    }
+
+    /**
+     * @param skipper Reads past a value without creating it
+     * @see #skip(DataReader)
+     */
+    static <T> TypeSerializer<T> of(Class<T> type, Encoder<? super T> encoder, Decoder<? extends T> decoder, Skipper skipper) {
+        return new TypeSerializer<>() {
+            @Override
+            public Class<T> getType() {
+                return type;
+            }
+
+            @Override
+            public void write(T value, DataWriter writer) throws IOException {
+                encoder.write(value, writer);
+            }
+
+            @Override
+            public T read(DataReader reader) throws IOException {
+                return decoder.read(reader);
+            }
+
+            @Override
+            public void skip(DataReader reader) throws IOException {
+                skipper.skip(reader);
+            }
+        };
+    }
+
+    Class<T> getType();
+
+    /**
+     * @param value The value to write, never {@code null}
+     */
+    void write(T value, DataWriter writer) throws IOException;
+
+    T read(DataReader reader) throws IOException;
+
+    /**
+     * Reads past a value that is not needed, e.g. a field that was removed from its class or one a view did not ask for.
+     * Unless overridden the value is read and discarded, serializers of values that can be skipped through
+     * {@link DataReader#skip(org.kurodev.DataType)} and its siblings should do so.
+     */
+    default void skip(DataReader reader) throws IOException {
+        read(reader);
+    }
+
+    @FunctionalInterface
+    interface Encoder<T> {
+        void write(T value, DataWriter writer) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Decoder<T> {
+        T read(DataReader reader) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Skipper {
+        void skip(DataReader reader) throws IOException;
+    }
+}
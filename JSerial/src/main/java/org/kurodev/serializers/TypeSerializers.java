@@ -0,0 +1,119 @@
+package org.kurodev.serializers;
+
+import org.kurodev.DataType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The {@link TypeSerializer}s registered with a single {@link ObjectSerializer}.
+ * Classes are compared by identity, the map is only modified while the serializer is built.
+ */
+class TypeSerializers {
+    private final Map<Class<?>, TypeSerializer<?>> serializers = new IdentityHashMap<>();
+    private TypeSerializer<?>[] all = new TypeSerializer<?>[0];
+
+    /**
+     * @return The serializers for common JDK value types
+     */
+    static List<TypeSerializer<?>> builtIns() {
+        return List.of(
+                TypeSerializer.of(UUID.class, (value, writer) -> {
+                    writer.write(value.getMostSignificantBits());
+                    writer.write(value.getLeastSignificantBits());
+                }, reader -> new UUID(reader.readLong(), reader.readLong()), reader -> skip(reader, DataType.LONG, DataType.LONG)),
+                TypeSerializer.of(Instant.class, (value, writer) -> {
+                    writer.write(value.getEpochSecond());
+                    writer.write(value.getNano());
+                }, reader -> Instant.ofEpochSecond(reader.readLong(), reader.readInt()), reader -> skip(reader, DataType.LONG, DataType.INTEGER)),
+                TypeSerializer.of(Duration.class, (value, writer) -> {
+                    writer.write(value.getSeconds());
+                    writer.write(value.getNano());
+                }, reader -> Duration.ofSeconds(reader.readLong(), reader.readInt()), reader -> skip(reader, DataType.LONG, DataType.INTEGER)),
+                TypeSerializer.of(LocalDate.class, (value, writer) -> writer.write(value.toEpochDay()),
+                        reader -> LocalDate.ofEpochDay(reader.readLong()), reader -> reader.skip(DataType.LONG)),
+                TypeSerializer.of(LocalTime.class, (value, writer) -> writer.write(value.toNanoOfDay()),
+                        reader -> LocalTime.ofNanoOfDay(reader.readLong()), reader -> reader.skip(DataType.LONG)),
+                TypeSerializer.of(LocalDateTime.class, TypeSerializers::writeDateTime, TypeSerializers::readDateTime,
+                        reader -> skip(reader, DataType.LONG, DataType.LONG)),
+                TypeSerializer.of(OffsetDateTime.class, (value, writer) -> {
+                    writeDateTime(value.toLocalDateTime(), writer);
+                    writer.write(value.getOffset().getTotalSeconds());
+                }, reader -> OffsetDateTime.of(readDateTime(reader), ZoneOffset.ofTotalSeconds(reader.readInt())),
+                        reader -> skip(reader, DataType.LONG, DataType.LONG, DataType.INTEGER)),
+                TypeSerializer.of(ZonedDateTime.class, (value, writer) -> {
+                    writeDateTime(value.toLocalDateTime(), writer);
+                    //the offset tells apart the two local times of a daylight saving overlap
+                    writer.write(value.getOffset().getTotalSeconds());
+                    writer.write(value.getZone().getId());
+                }, reader -> {
+                    LocalDateTime dateTime = readDateTime(reader);
+                    ZoneOffset offset = ZoneOffset.ofTotalSeconds(reader.readInt());
+                    return ZonedDateTime.ofLocal(dateTime, ZoneId.of(reader.readString()), offset);
+                }, reader -> skip(reader, DataType.LONG, DataType.LONG, DataType.INTEGER, DataType.STRING)),
+                TypeSerializer.of(Date.class, (value, writer) -> writer.write(value.getTime()),
+                        reader -> new Date(reader.readLong()), reader -> reader.skip(DataType.LONG)),
+                TypeSerializer.of(BigInteger.class, (value, writer) -> writer.writeArray(value.toByteArray()),
+                        reader -> new BigInteger(reader.readByteArray()), reader -> reader.skipArray(DataType.BYTE)),
+                TypeSerializer.of(BigDecimal.class, (value, writer) -> {
+                    writer.writeArray(value.unscaledValue().toByteArray());
+                    writer.write(value.scale());
+                }, reader -> new BigDecimal(new BigInteger(reader.readByteArray()), reader.readInt()), reader -> {
+                    reader.skipArray(DataType.BYTE);
+                    reader.skip(DataType.INTEGER);
+                }));
+    }
+
+    private static void skip(DataReader reader, DataType... types) throws IOException {
+        for (DataType type : types) {
+            reader.skip(type);
+        }
+    }
+
+    private static void writeDateTime(LocalDateTime value, DataWriter writer) throws IOException {
+        writer.write(value.toLocalDate().toEpochDay());
+        writer.write(value.toLocalTime().toNanoOfDay());
+    }
+
+    private static LocalDateTime readDateTime(DataReader reader) throws IOException {
+        return LocalDateTime.of(LocalDate.ofEpochDay(reader.readLong()), LocalTime.ofNanoOfDay(reader.readLong()));
+    }
+
+    void register(TypeSerializer<?> serializer) {
+        serializers.put(serializer.getType(), serializer);
+        all = serializers.values().toArray(new TypeSerializer<?>[0]);
+    }
+
+    /**
+     * @return The serializer registered for exactly the given class, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    <T> TypeSerializer<T> get(Class<?> type) {
+        return (TypeSerializer<T>) serializers.get(type);
+    }
+
+    /**
+     * Looks the serializer up without loading the class, for values whose class is only known from a {@link Schema}.
+     * The name is compared where it stands in the signature, so skipping values does not copy it out.
+     *
+     * @param from The index of the class name in the signature
+     * @param to   The index just past the class name
+     * @return The serializer registered for the class of the given name, or {@code null}
+     */
+    TypeSerializer<?> get(String signature, int from, int to) {
+        for (TypeSerializer<?> serializer : all) {
+            String name = serializer.getType().getName();
+            if (name.length() == to - from && signature.startsWith(name, from)) {
+                return serializer;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package org.kurodev.serializers.exception;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which the JSerial annotation processor generates a
+ * {@link org.kurodev.serializers.ClassSerializer} at compile time.
+ * Generated serializers are discovered through {@link java.util.ServiceLoader} and preferred by
+ * {@link org.kurodev.serializers.ObjectSerializer} over reflection.
+ * <p>
+ * Fields of the annotated class must not be private or final, and the class needs a non-private no-arg constructor.
+ */
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GenerateSerializer {
+}
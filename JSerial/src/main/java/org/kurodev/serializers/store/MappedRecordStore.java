@@ -0,0 +1,245 @@
+package org.kurodev.serializers.store;
+
+import org.kurodev.serializers.ObjectSerializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An append-only file of objects serialized by an {@link ObjectSerializer}, each stored as a 4 byte length
+ * followed by the serialized bytes.
+ * <p>
+ * Records are read by memory mapping the file in segments rather than streaming through it, so any record
+ * can be read on its own. Segments are mapped lazily and hold at most 1 GB by default ({@link #DEFAULT_SEGMENT_SIZE}),
+ * which allows files larger than 2 GB. The offset index is rebuilt when the file is opened, by only reading
+ * the length of each record. A file ending in an incomplete record, e.g. after a crash, is only opened
+ * when it is explicitly repaired by discarding that record ({@link #open(Path, ObjectSerializer, int, boolean)}).
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class MappedRecordStore implements Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    private static final int INITIAL_INDEX_SIZE = 1024;
+    private final FileChannel channel;
+    private final ObjectSerializer serializer;
+    private final int segmentSize;
+    private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private long[] offsets = new long[INITIAL_INDEX_SIZE];
+    private int count;
+    private long end;
+
+    private MappedRecordStore(FileChannel channel, ObjectSerializer serializer, int segmentSize, boolean repair) throws IOException {
+        this.channel = channel;
+        this.serializer = serializer;
+        this.segmentSize = segmentSize;
+        buildIndex(repair);
+    }
+
+    /**
+     * Opens the store, creating the file if it does not exist yet.
+     *
+     * @param file       The file holding the records
+     * @param serializer The serializer used to write and read the records
+     * @throws IOException if the file does not end with a complete record
+     */
+    public static MappedRecordStore open(Path file, ObjectSerializer serializer) throws IOException {
+        return open(file, serializer, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize The maximum amount of bytes mapped at once
+     * @see #open(Path, ObjectSerializer)
+     */
+    public static MappedRecordStore open(Path file, ObjectSerializer serializer, int segmentSize) throws IOException {
+        return open(file, serializer, segmentSize, false);
+    }
+
+    /**
+     * @param repair Whether bytes following the last complete record are truncated from the file,
+     *               otherwise the store is not opened if there are any
+     * @see #open(Path, ObjectSerializer, int)
+     */
+    public static MappedRecordStore open(Path file, ObjectSerializer serializer, int segmentSize, boolean repair) throws IOException {
+        if (segmentSize < Integer.BYTES) {
+            throw new IllegalArgumentException("Segment size must be at least " + Integer.BYTES);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new MappedRecordStore(channel, serializer, segmentSize, repair);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void buildIndex(boolean repair) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position + Integer.BYTES <= size) {
+            int length = region(position, Integer.BYTES).getInt();
+            if (length < 0 || position + Integer.BYTES + length > size) {
+                break;
+            }
+            addOffset(position);
+            position += Integer.BYTES + length;
+        }
+        end = position;
+        if (end < size) {
+            if (!repair) {
+                throw new IOException("Incomplete record at offset " + end + " of " + size
+                        + " bytes, the store has to be opened with repair to discard it");
+            }
+            //drop the incomplete record, so later appends are not followed by its leftovers
+            segments = new MappedByteBuffer[0];
+            channel.truncate(end);
+        }
+    }
+
+    private void addOffset(long offset) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        offsets[count++] = offset;
+    }
+
+    /**
+     * Maps the given region of the file, using the segment it lies in if it does not cross a segment boundary.
+     */
+    private ByteBuffer region(long position, int length) throws IOException {
+        int index = (int) (position / segmentSize);
+        int offset = (int) (position % segmentSize);
+        if (offset + length > segmentSize) {
+            //records crossing a segment boundary are mapped on their own
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        MappedByteBuffer segment = segment(index, offset + length);
+        return segment.slice(offset, length);
+    }
+
+    /**
+     * @param required The amount of bytes the segment has to hold, it is remapped if the file grew since
+     */
+    private MappedByteBuffer segment(int index, int required) throws IOException {
+        if (index >= segments.length) {
+            segments = Arrays.copyOf(segments, index + 1);
+        }
+        MappedByteBuffer segment = segments[index];
+        if (segment == null || segment.capacity() < required) {
+            long start = (long) index * segmentSize;
+            long length = Math.min(segmentSize, channel.size() - start);
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            segments[index] = segment;
+        }
+        return segment;
+    }
+
+    /**
+     * Appends an object to the end of the file.
+     *
+     * @return The index of the new record
+     */
+    public int append(Object obj) throws IOException {
+        byte[] bytes = serializer.write(obj);
+        header.clear().putInt(bytes.length).flip();
+        ByteBuffer[] record = {header, ByteBuffer.wrap(bytes)};
+        channel.position(end);
+        while (record[1].hasRemaining()) {
+            channel.write(record);
+        }
+        addOffset(end);
+        end += Integer.BYTES + bytes.length;
+        return count - 1;
+    }
+
+    /**
+     * @param index The index of the record, in the order they were appended
+     * @param type  The class of the object stored in the record
+     */
+    public <T> T read(int index, Class<T> type) throws IOException {
+        return serializer.read(record(index), type);
+    }
+
+    /**
+     * @return The serialized bytes of the record, mapped from the file
+     */
+    public ByteBuffer record(int index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index + " does not exist, size: " + count);
+        }
+        long position = offsets[index];
+        long next = index + 1 < count ? offsets[index + 1] : end;
+        return region(position + Integer.BYTES, (int) (next - position - Integer.BYTES));
+    }
+
+    /**
+     * @return The amount of records in the store
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return The amount of bytes used by all records
+     */
+    public long byteSize() {
+        return end;
+    }
+
+    /**
+     * Iterates all records in order, each is only read when it is reached.
+     */
+    public <T> Iterator<T> iterator(Class<T> type) {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return read(next++, type);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    public <T> Stream<T> stream(Class<T> type) {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(type), count,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Forces all appended records to be written to the storage device.
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments = new MappedByteBuffer[0];
+        channel.close();
+    }
+}
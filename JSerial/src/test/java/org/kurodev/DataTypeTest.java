@@ -0,0 +1,38 @@
+package org.kurodev;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class DataTypeTest {
+
+    @Test
+    public void identifyClassTest() {
+        assertEquals(DataType.INTEGER, DataType.identify(int.class));
+        assertEquals(DataType.INTEGER, DataType.identify(Integer.class));
+        assertEquals(DataType.STRING, DataType.identify(String.class));
+        assertEquals(DataType.ARRAY, DataType.identify(long[].class));
+        assertEquals(DataType.COLLECTION, DataType.identify(ArrayList.class));
+        assertEquals(DataType.MAP, DataType.identify(TreeMap.class));
+        assertEquals(DataType.OBJECT, DataType.identify(Object.class));
+        assertEquals(DataType.OBJECT, DataType.identify(DataTypeTest.class));
+    }
+
+    @Test
+    public void identifyOrdinalTest() {
+        for (DataType type : DataType.values()) {
+            assertEquals(type, DataType.identify(type.ordinal()));
+        }
+        //ordinals of the original constants are part of the format and must not change
+        assertEquals(DataType.BOOLEAN, DataType.identify(0));
+        assertEquals(DataType.STRING, DataType.identify(9));
+        assertEquals(DataType.ARRAY, DataType.identify(10));
+        assertEquals(DataType.MAP, DataType.identify(12));
+        Assert.assertNull(DataType.identify(-1));
+        Assert.assertNull(DataType.identify(DataType.values().length));
+    }
+}
@@ -0,0 +1,144 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class BatchTest {
+    private static List<Entry> entries(int count) {
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Entry entry = new Entry();
+            entry.id = i;
+            entry.key = "key-" + i;
+            entry.values = new long[i % 7];
+            Arrays.fill(entry.values, i);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    @Test
+    public void roundTripKeepsOrderTest() {
+        ObjectSerializer serializer = new ObjectSerializer();
+        List<Entry> entries = entries(10_000);
+        byte[] batch = serializer.writeAll(entries);
+        assertEquals(entries, serializer.readAll(batch, Entry.class));
+    }
+
+    @Test
+    public void suppliedExecutorTest() {
+        ObjectSerializer serializer = ObjectSerializer.builder().compact(true).stringTable(true).build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Entry> entries = entries(5_000);
+            byte[] batch = serializer.writeAll(entries, executor);
+            assertEquals(entries, serializer.readAll(batch, Entry.class, executor));
+            //the chunks are joined in order, so the batch does not depend on how they were scheduled
+            assertArrayEquals(batch, serializer.writeAll(entries, Runnable::run));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failedBatchReturnsItsBuffersTest() throws IOException {
+        BufferPool pool = new BufferPool(64);
+        List<Entry> entries = entries(640);
+        //null fields are not allowed by default, so the last chunk fails
+        entries.get(639).key = null;
+        try {
+            Batch.write(new ObjectSerializer(), pool, entries, Runnable::run);
+            fail("batch with a null field was written");
+        } catch (IllegalArgumentException expected) {
+            //expected
+        }
+        //one chunk of 64 entries per buffer, limited to four per processor
+        assertEquals(Math.min(10, Runtime.getRuntime().availableProcessors() * 4), pool.size());
+    }
+
+    @Test
+    public void batchIsReadableAsObjectStreamTest() throws IOException {
+        ObjectSerializer serializer = new ObjectSerializer();
+        List<Entry> entries = entries(1_000);
+        try (var reader = new ObjectReader(serializer, new ByteArrayInputStream(serializer.writeAll(entries)))) {
+            assertEquals(entries, reader.stream(Entry.class).toList());
+        }
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ObjectWriter(serializer, out)) {
+            for (Entry entry : entries) {
+                writer.write(entry);
+            }
+        }
+        assertArrayEquals(out.toByteArray(), serializer.writeAll(entries));
+        assertEquals(entries, serializer.readAll(out.toByteArray(), Entry.class));
+    }
+
+    @Test
+    public void schemaEvolutionBatchTest() throws IOException {
+        ObjectSerializer serializer = ObjectSerializer.builder().schemaEvolution(true).build();
+        List<Entry> entries = entries(1_000);
+        byte[] batch = serializer.writeAll(entries);
+        assertEquals(entries, serializer.readAll(batch, Entry.class));
+        try (var reader = new ObjectReader(serializer, new ByteArrayInputStream(batch))) {
+            assertEquals(entries, reader.stream(Entry.class).toList());
+        }
+    }
+
+    @Test
+    public void emptyBatchTest() {
+        ObjectSerializer serializer = new ObjectSerializer();
+        byte[] batch = serializer.writeAll(List.of());
+        assertEquals(0, batch.length);
+        assertTrue(serializer.readAll(batch, Entry.class).isEmpty());
+    }
+
+    @Test
+    public void frameOffsetsTest() throws IOException {
+        assertArrayEquals(new int[]{0, 6}, Batch.frames(new byte[]{0, 0, 0, 2, 1, 1, 0, 0, 0, 0}));
+    }
+
+    @Test(expected = IOException.class)
+    public void frameBeyondTheEndTest() throws IOException {
+        Batch.frames(new byte[]{0, 0, 0, 3, 1, 1});
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFrameLengthTest() throws IOException {
+        Batch.frames(new byte[]{0, 0, 0});
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void negativeFrameLengthTest() {
+        new ObjectSerializer().readAll(new byte[]{-1, 0, 0, 0}, Entry.class);
+    }
+
+    private static class Entry {
+        int id;
+        String key;
+        long[] values;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Entry entry = (Entry) o;
+            return id == entry.id && key.equals(entry.key) && Arrays.equals(values, entry.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, key) * 31 + Arrays.hashCode(values);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.kurodev.serializers;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kurodev.serializers.testinstances.CollectionObject;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class CollectionTest {
+
+    @Test
+    public void collectionRoundTripTest() {
+        CollectionObject source = new CollectionObject();
+        for (var serializer : new ObjectSerializer[]{new ObjectSerializer(),
+                ObjectSerializer.builder().mode(ObjectSerializer.Mode.GENERATED).build(),
+                ObjectSerializer.builder().compact(true).build()}) {
+            assertEquals(source, serializer.read(serializer.write(source), CollectionObject.class));
+        }
+    }
+
+    @Test
+    public void declaredTypeDecidesTheImplementationTest() {
+        var serializer = new ObjectSerializer();
+        ListHolder holder = new ListHolder();
+        holder.values = List.of("a", "b");
+        holder.lookup = new TreeMap<>(Map.of(1, 2L));
+        ListHolder read = serializer.read(serializer.write(holder), ListHolder.class);
+        assertEquals(ArrayList.class, read.values.getClass());
+        assertEquals(HashMap.class, read.lookup.getClass());
+        assertEquals(holder.lookup, read.lookup);
+    }
+
+    @Test
+    public void registeredFactoryIsUsedTest() {
+        var serializer = ObjectSerializer.builder().collectionFactory(List.class, size -> new LinkedList<>()).build();
+        ListHolder holder = new ListHolder();
+        holder.values = List.of("a");
+        assertEquals(LinkedList.class, serializer.read(serializer.write(holder), ListHolder.class).values.getClass());
+    }
+
+    @Test
+    public void rawCollectionsAreRejectedTest() {
+        RawHolder holder = new RawHolder();
+        holder.values = new ArrayList<>(List.of("a"));
+        try {
+            new ObjectSerializer().write(holder);
+            Assert.fail("raw collections have no element type");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("element type"));
+        }
+    }
+
+    @Test
+    public void copyOnWriteListIsCreatedOnceTest() {
+        var serializer = new ObjectSerializer();
+        CopyOnWriteHolder holder = new CopyOnWriteHolder();
+        for (int i = 0; i < 1000; i++) {
+            holder.values.add(i);
+            holder.names.add("name" + i);
+        }
+        CopyOnWriteHolder read = serializer.read(serializer.write(holder), CopyOnWriteHolder.class);
+        assertEquals(CopyOnWriteArrayList.class, read.values.getClass());
+        assertEquals(holder.values, read.values);
+        assertEquals(holder.names, read.names);
+    }
+
+    @Test
+    public void hashCapacityAvoidsRehashingTest() {
+        for (int size : new int[]{0, 1, 12, 13, 1000}) {
+            Assert.assertTrue(CollectionFactories.capacity(size) * 0.75 >= size);
+        }
+    }
+
+    @Test
+    public void descriptorResolvesTypeArgumentsTest() {
+        TypeDescriptor series = TypeDescriptor.of(CollectionObject.class, "series");
+        assertEquals(String.class, series.getKey().getType());
+        assertEquals(List.class, series.getValue().getType());
+        assertEquals(Long.class, series.getValue().getElement().getType());
+    }
+
+    public static class ListHolder {
+        List<String> values;
+        Map<Integer, Long> lookup;
+    }
+
+    public static class CopyOnWriteHolder {
+        CopyOnWriteArrayList<Integer> values = new CopyOnWriteArrayList<>();
+        CopyOnWriteArrayList<String> names = new CopyOnWriteArrayList<>();
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static class RawHolder {
+        List values;
+    }
+}
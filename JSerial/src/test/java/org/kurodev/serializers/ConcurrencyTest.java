@@ -0,0 +1,130 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ConcurrencyTest {
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 200;
+
+    private static Message message(int id) {
+        Message message = new Message();
+        message.id = id;
+        message.name = "message-" + id;
+        message.values = new ArrayList<>();
+        for (int i = 0; i < id % 50; i++) {
+            message.values.add(id * i);
+        }
+        return message;
+    }
+
+    private static void roundTrips(ObjectSerializer serializer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread * ROUNDS;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + ROUNDS; i++) {
+                        Message message = message(i);
+                        assertEquals(message, serializer.read(serializer.write(message), Message.class));
+                        var out = new ByteArrayOutputStream();
+                        serializer.write(message, out);
+                        assertEquals(message, serializer.read(new ByteArrayInputStream(out.toByteArray()), Message.class));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void sharedSerializerTest() throws Exception {
+        roundTrips(new ObjectSerializer());
+    }
+
+    @Test
+    public void sharedGeneratedSerializerTest() throws Exception {
+        roundTrips(ObjectSerializer.builder().mode(ObjectSerializer.Mode.GENERATED).build());
+    }
+
+    @Test
+    public void sharedSerializerWithStreamStateTest() throws Exception {
+        roundTrips(ObjectSerializer.builder().referenceTracking(true).schemaEvolution(true)
+                .stringTable(true).stringCache(64).build());
+    }
+
+    @Test
+    public void instantiatorIsCachedInThePlanTest() {
+        ObjectSerializer serializer = new ObjectSerializer();
+        ClassPlan plan = serializer.getPlan(Message.class);
+        assertSame(plan.getInstantiator(), plan.getInstantiator());
+        assertEquals(message(7), serializer.read(serializer.write(message(7)), Message.class));
+    }
+
+    @Test
+    public void poolReusesReleasedBuffersTest() {
+        BufferPool pool = new BufferPool(4);
+        ByteBuffer buffer = pool.acquire(64);
+        buffer.putInt(42);
+        pool.release(buffer);
+        assertEquals(1, pool.size());
+        ByteBuffer reused = pool.acquire(32);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(0, pool.size());
+        //a buffer too small for the request is left in the pool
+        pool.release(reused);
+        assertNotSame(reused, pool.acquire(128));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void poolIsBoundedTest() {
+        BufferPool pool = new BufferPool(3);
+        for (int i = 0; i < 10; i++) {
+            pool.release(ByteBuffer.allocate(16));
+        }
+        assertEquals(4, pool.size());
+        pool.release(ByteBuffer.allocate(BufferPool.MAX_RETAINED + 1));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(pool.acquire(16).capacity() <= BufferPool.MAX_RETAINED);
+        }
+        assertEquals(0, pool.size());
+    }
+
+    private static class Message {
+        int id;
+        String name;
+        List<Integer> values;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Message that = (Message) o;
+            return id == that.id && name.equals(that.name) && values.equals(that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, name, values);
+        }
+    }
+}
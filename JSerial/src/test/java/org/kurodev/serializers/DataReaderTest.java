@@ -0,0 +1,173 @@
+package org.kurodev.serializers;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kurodev.DataType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+public class DataReaderTest {
+
+    @Test
+    public void readInt() throws IOException {
+        byte[] input = {0xf, 0x12, 0x34, 0x0};
+        int expected = 0x0f123400;
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertEquals(expected, reader.readInt());
+    }
+
+    @Test
+    public void readShort() throws IOException {
+        byte[] input = {0xf, 0x12};
+        short expected = 0x0f12;
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertEquals(expected, reader.readShort());
+    }
+
+    @Test
+    public void readLong() throws IOException {
+        long expected = 0x0000ff000000ff00L;
+        byte[] input = {0x0, 0x0, (byte) 0xff, 0x0, 0x0, 0x0, (byte) 0xff, 0x0};
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertEquals(expected, reader.readLong());
+    }
+
+    @Test
+    public void readBool() throws IOException {
+        byte[] input = {1};
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertTrue(reader.readBool());
+    }
+
+    @Test
+    public void readFloat() throws IOException {
+        float expected = 37.986F;
+        byte[] input = {0x42, 0x17, (byte) 0xf1, (byte) 0xaa};
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertEquals(expected, reader.readFloat(), 0);
+    }
+
+    @Test
+    public void readDouble() throws IOException {
+        byte[] input = new byte[]{0x40, (byte) 0xb0, (byte) 0x8b, (byte) 0x8b, 0x13, 0x37, (byte) 0xeb, 0x29};
+        double expected = 4235.543262D;
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertEquals(expected, reader.readDouble(), 0);
+    }
+
+    @Test
+    public void readByte() throws IOException {
+        byte[] input = new byte[]{0x40};
+        double expected = 0x40;
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertEquals(expected, reader.readByte(), 0);
+    }
+
+    @Test
+    public void readChar() throws IOException {
+        byte[] input = new byte[]{0x00, 0x30};
+        char expected = 0x30;
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertEquals(expected, reader.readChar(), 0);
+    }
+
+    @Test
+    public void readString() throws IOException {
+        String expected = "this is a test string😊"; //length of string: 25 (0x0,0x0,0x0,0x19)
+        byte[] input = new byte[]{0x0, 0x0, 0x0, 0x19, 0x74, 0x68, 0x69, 0x73, 0x20, 0x69, 0x73, 0x20, 0x61, 0x20, 0x74, 0x65, 0x73, 0x74,
+                0x20, 0x73, 0x74, 0x72, 0x69, 0x6e, 0x67, (byte) 0xf0, (byte) 0x9f, (byte) 0x98, (byte) 0x8a};
+        var reader = new DataReader(new ByteArrayInputStream(input));
+        Assert.assertEquals(expected, reader.readString());
+    }
+
+    @Test
+    public void readFromArray() throws IOException {
+        byte[] input = {0x0, 0x30, 0x0, 0x0, 0x0, 0x2, 0x68, 0x69, 0x1};
+        var reader = new DataReader(input);
+        Assert.assertEquals('0', reader.readChar());
+        Assert.assertEquals("hi", reader.readString());
+        Assert.assertTrue(reader.readBool());
+        Assert.assertEquals(input.length, reader.position());
+    }
+
+    @Test
+    public void readFromDirectBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 0xf).put((byte) 0x12).put((byte) 0x34).put((byte) 0x0).put(new byte[]{0x0, 0x0, 0x0, 0x1, 0x7a}).flip();
+        var reader = new DataReader(buffer);
+        Assert.assertEquals(0x0f123400, reader.readInt());
+        Assert.assertEquals("z", reader.readString());
+        Assert.assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void streamIsRefilledAcrossValues() throws IOException {
+        byte[] input = new byte[40];
+        for (int i = 0; i < input.length; i += Long.BYTES) {
+            input[i + Long.BYTES - 1] = (byte) i;
+        }
+        var reader = new DataReader(new ByteArrayInputStream(input), 12);
+        for (int i = 0; i < input.length; i += Long.BYTES) {
+            Assert.assertEquals(i, reader.readLong());
+        }
+    }
+
+    @Test
+    public void stringLargerThanBuffer() throws IOException {
+        String expected = "a longer string than the buffer";
+        byte[] bytes = expected.getBytes(StandardCharsets.UTF_8);
+        var input = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).array();
+        var reader = new DataReader(new ByteArrayInputStream(input), 8);
+        Assert.assertEquals(expected, reader.readString());
+    }
+
+    @Test(expected = EOFException.class)
+    public void missingBytesThrowEOFException() throws IOException {
+        new DataReader(new byte[]{0x1, 0x2}).readInt();
+    }
+
+    @Test
+    public void skipEachType() throws IOException {
+        for (boolean compact : new boolean[]{false, true}) {
+            var out = new ByteArrayOutputStream();
+            var writer = new DataWriter(out, 16);
+            writer.setCompact(compact);
+            writer.write(true);
+            writer.writeByte((byte) 1);
+            writer.write('c');
+            writer.write(1.5d);
+            writer.write(2.5f);
+            writer.write(300);
+            writer.write(-5L);
+            writer.write((short) 7);
+            writer.write("a string longer than the buffer");
+            writer.writeArray(new int[]{1, 2, 300});
+            writer.writeArray(new double[]{1, 2});
+            writer.writeArray((long[]) null);
+            writer.write(42);
+            writer.flush();
+            var reader = new DataReader(new ByteArrayInputStream(out.toByteArray()), 16);
+            reader.setCompact(compact);
+            for (DataType type : new DataType[]{DataType.BOOLEAN, DataType.BYTE, DataType.CHAR, DataType.DOUBLE,
+                    DataType.FLOAT, DataType.INTEGER, DataType.LONG, DataType.SHORT, DataType.STRING}) {
+                reader.skip(type);
+            }
+            reader.skipArray(DataType.INTEGER);
+            reader.skipArray(DataType.DOUBLE);
+            reader.skipArray(DataType.LONG);
+            Assert.assertEquals(42, reader.readInt());
+            Assert.assertFalse(reader.hasRemaining());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void skipObjectNeedsItsType() throws IOException {
+        new DataReader(new byte[4]).skip(DataType.OBJECT);
+    }
+}
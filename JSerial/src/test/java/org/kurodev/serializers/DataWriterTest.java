@@ -0,0 +1,155 @@
+package org.kurodev.serializers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class DataWriterTest {
+
+    @Test
+    public void writeInt() throws IOException {
+        var writer = new DataWriter();
+        writer.write(0x0f123400);
+        assertArrayEquals(new byte[]{0xf, 0x12, 0x34, 0x0}, writer.toByteArray());
+    }
+
+    @Test
+    public void writeLong() throws IOException {
+        var writer = new DataWriter();
+        writer.write(0x0000ff000000ff00L);
+        assertArrayEquals(new byte[]{0x0, 0x0, (byte) 0xff, 0x0, 0x0, 0x0, (byte) 0xff, 0x0}, writer.toByteArray());
+    }
+
+    @Test
+    public void writeString() throws IOException {
+        var writer = new DataWriter();
+        writer.write("abc");
+        assertArrayEquals(new byte[]{0x0, 0x0, 0x0, 0x3, 0x61, 0x62, 0x63}, writer.toByteArray());
+    }
+
+    @Test
+    public void compactIntIsZigzagVarint() throws IOException {
+        var writer = new DataWriter();
+        writer.setCompact(true);
+        writer.write(0);
+        writer.write(-1);
+        writer.write(1);
+        writer.write(300);
+        writer.write(Integer.MIN_VALUE);
+        byte[] expected = {0x0, 0x1, 0x2, (byte) 0xd8, 0x4, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0xf};
+        assertArrayEquals(expected, writer.toByteArray());
+    }
+
+    @Test
+    public void compactStringHasVarintLength() throws IOException {
+        var writer = new DataWriter();
+        writer.setCompact(true);
+        writer.write("abc");
+        assertArrayEquals(new byte[]{0x3, 0x61, 0x62, 0x63}, writer.toByteArray());
+    }
+
+    @Test
+    public void compactRoundTrip() throws IOException {
+        var writer = new DataWriter();
+        writer.setCompact(true);
+        long[] longs = {0, 1, -1, 63, -64, 64, Long.MAX_VALUE, Long.MIN_VALUE};
+        int[] ints = {0, 1, -1, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (long l : longs) {
+            writer.write(l);
+        }
+        for (int i : ints) {
+            writer.write(i);
+            writer.writeVarInt(i);
+        }
+        writer.write("x".repeat(300));
+        var reader = new DataReader(writer.toByteArray());
+        reader.setCompact(true);
+        for (long l : longs) {
+            Assert.assertEquals(l, reader.readLong());
+        }
+        for (int i : ints) {
+            Assert.assertEquals(i, reader.readInt());
+            Assert.assertEquals(i, reader.readVarInt());
+        }
+        Assert.assertEquals("x".repeat(300), reader.readString());
+        Assert.assertFalse(reader.hasRemaining());
+    }
+
+    @Test
+    public void writeIntArray() throws IOException {
+        var writer = new DataWriter();
+        writer.writeArray(new int[]{1, -1});
+        writer.writeArray((int[]) null);
+        byte[] expected = {0x0, 0x0, 0x0, 0x2, 0x0, 0x0, 0x0, 0x1, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+                (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff};
+        assertArrayEquals(expected, writer.toByteArray());
+    }
+
+    @Test
+    public void arraysLargerThanTheBufferAreChunked() throws IOException {
+        long[] longs = new long[1000];
+        Arrays.setAll(longs, i -> i * 31L);
+        char[] chars = "chunked".repeat(100).toCharArray();
+        var out = new ByteArrayOutputStream();
+        var writer = new DataWriter(out, 20);
+        writer.writeArray(longs);
+        writer.writeArray(chars);
+        writer.flush();
+        var reader = new DataReader(new ByteArrayInputStream(out.toByteArray()), 20);
+        assertArrayEquals(longs, reader.readLongArray());
+        assertArrayEquals(chars, reader.readCharArray());
+        Assert.assertFalse(reader.hasRemaining());
+    }
+
+    @Test
+    public void streamIsOnlyWrittenOnFlush() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new DataWriter(out);
+        writer.write(1);
+        writer.write(2L);
+        Assert.assertEquals(0, out.size());
+        writer.flush();
+        Assert.assertEquals(Integer.BYTES + Long.BYTES, out.size());
+        Assert.assertEquals(0, writer.size());
+    }
+
+    @Test
+    public void fullBufferIsDrainedIntoStream() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new DataWriter(out, 16);
+        for (int i = 0; i < 5; i++) {
+            writer.write(i);
+        }
+        Assert.assertEquals(16, out.size());
+        writer.flush();
+        var expected = new DataWriter();
+        for (int i = 0; i < 5; i++) {
+            expected.write(i);
+        }
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    public void memoryBufferGrows() throws IOException {
+        var writer = new DataWriter();
+        String large = "x".repeat(10_000);
+        writer.write(large);
+        writer.write(true);
+        Assert.assertEquals(Integer.BYTES + large.length() + 1, writer.size());
+    }
+
+    @Test
+    public void largeWriteBypassesBuffer() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new DataWriter(out, 16);
+        writer.write("y".repeat(100));
+        writer.flush();
+        Assert.assertEquals(Integer.BYTES + 100, out.size());
+    }
+}
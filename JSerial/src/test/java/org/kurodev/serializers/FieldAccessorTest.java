@@ -0,0 +1,46 @@
+package org.kurodev.serializers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FieldAccessorTest {
+
+    private static FieldAccessor accessor(String name) throws NoSuchFieldException {
+        var field = Telemetry.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return new FieldAccessor(field);
+    }
+
+    @Test
+    public void primitiveAccessTest() throws NoSuchFieldException {
+        Telemetry telemetry = new Telemetry();
+        FieldAccessor accessor = accessor("counter");
+        Assert.assertTrue(accessor.isPrimitive());
+        accessor.setInt(telemetry, 42);
+        Assert.assertEquals(42, accessor.getInt(telemetry));
+        Assert.assertEquals(42, accessor.get(telemetry));
+    }
+
+    @Test
+    public void finalFieldCanBeSetTest() throws NoSuchFieldException {
+        Telemetry telemetry = new Telemetry();
+        FieldAccessor accessor = accessor("timestamp");
+        accessor.setLong(telemetry, 0xcafeL);
+        Assert.assertEquals(0xcafeL, accessor.getLong(telemetry));
+    }
+
+    @Test
+    public void referenceAccessTest() throws NoSuchFieldException {
+        Telemetry telemetry = new Telemetry();
+        FieldAccessor accessor = accessor("boxed");
+        Assert.assertFalse(accessor.isPrimitive());
+        accessor.set(telemetry, 5.0D);
+        Assert.assertEquals(5.0D, accessor.get(telemetry));
+    }
+
+    private static class Telemetry {
+        private final long timestamp = 1;
+        private int counter;
+        private Double boxed;
+    }
+}
@@ -0,0 +1,61 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FieldPolicyTest {
+
+    private static List<String> fields(ObjectSerializer serializer, Class<?> type) {
+        return serializer.getPlan(type).getFields().stream().map(FieldPlan::getName).toList();
+    }
+
+    @Test
+    public void staticAndTransientFieldsAreSkippedTest() {
+        assertEquals(List.of("value"), fields(new ObjectSerializer(), Message.class));
+        Message message = new Message();
+        message.value = 3;
+        message.cache = "cached";
+        //only the int is written
+        assertEquals(Integer.BYTES, new ObjectSerializer().write(message).length);
+        Message read = new ObjectSerializer().read(new ObjectSerializer().write(message), Message.class);
+        assertEquals(3, read.value);
+        assertNull(read.cache);
+    }
+
+    @Test
+    public void syntheticFieldsAreSkippedTest() {
+        //the reference to the enclosing instance is synthetic
+        assertEquals(List.of("value"), fields(new ObjectSerializer(), Inner.class));
+    }
+
+    @Test
+    public void transientFieldsCanBeIncludedTest() {
+        var serializer = ObjectSerializer.builder().fieldPolicy(FieldPolicy.INCLUDE_TRANSIENT).build();
+        assertEquals(List.of("cache", "value"), fields(serializer, Message.class));
+        Message message = new Message();
+        message.cache = "cached";
+        assertEquals("cached", serializer.read(serializer.write(message), Message.class).cache);
+    }
+
+    @Test
+    public void customPolicyTest() {
+        var serializer = ObjectSerializer.builder()
+                .fieldPolicy(field -> FieldPolicy.DEFAULT.isSerialized(field) && !field.getName().startsWith("value"))
+                .build();
+        assertEquals(List.of(), fields(serializer, Message.class));
+    }
+
+    static class Message {
+        static final String TYPE = "message";
+        static int created;
+        transient String cache;
+        int value;
+    }
+
+    class Inner {
+        int value;
+    }
+}
@@ -0,0 +1,115 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+import org.kurodev.serializers.exception.Exclude;
+import org.kurodev.serializers.testinstances.ArrayObject;
+import org.kurodev.serializers.testinstances.ExcludeObject;
+import org.kurodev.serializers.testinstances.IncludeEverythingObject;
+import org.kurodev.serializers.testinstances.StringObject;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class IntegrationTest {
+    @Test
+    public void createObjectInstanceTest() throws IOException {
+        IncludeEverythingObject source = new IncludeEverythingObject();
+        var serializer = new ObjectSerializer();
+        byte[] encoded = serializer.write(source);
+        IncludeEverythingObject decoded = serializer.read(encoded, IncludeEverythingObject.class);
+        assertEquals(source, decoded);
+    }
+    @Test
+    public void createObjectInstanceTestAndIgnoreExcludedFields() throws IOException {
+        ExcludeObject source = new ExcludeObject();
+        var serializer = new ObjectSerializer();
+        byte[] encoded = serializer.write(source);
+        ExcludeObject decoded = serializer.read(encoded, ExcludeObject.class);
+        assertEquals(source, decoded);
+    }
+
+    @Test
+    public void compactRoundTripTest() {
+        IncludeEverythingObject source = new IncludeEverythingObject();
+        var compact = ObjectSerializer.builder().compact(true).build();
+        byte[] encoded = compact.write(source);
+        assertEquals(source, compact.read(encoded, IncludeEverythingObject.class));
+        //the string length takes a single byte instead of four
+        StringObject string = new StringObject();
+        assertEquals(new ObjectSerializer().write(string).length - 3, compact.write(string).length);
+    }
+
+    @Test
+    public void arrayRoundTripTest() {
+        ArrayObject source = new ArrayObject();
+        for (var serializer : new ObjectSerializer[]{new ObjectSerializer(),
+                ObjectSerializer.builder().mode(ObjectSerializer.Mode.GENERATED).build(),
+                ObjectSerializer.builder().compact(true).build()}) {
+            assertEquals(source, serializer.read(serializer.write(source), ArrayObject.class));
+        }
+    }
+
+    @Test
+    public void topLevelArrayTest() {
+        var serializer = new ObjectSerializer();
+        double[] samples = new double[10_000];
+        Arrays.setAll(samples, i -> i * 0.5);
+        byte[] encoded = serializer.write(samples);
+        assertEquals(Integer.BYTES + samples.length * Double.BYTES, encoded.length);
+        assertArrayEquals(samples, serializer.read(encoded, double[].class), 0);
+        String[] strings = {"a", null};
+        assertArrayEquals(strings, serializer.read(serializer.write(strings), String[].class));
+    }
+
+    @Test
+    public void directByteBufferRoundTripTest() {
+        var serializer = new ObjectSerializer();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+        IncludeEverythingObject first = new IncludeEverythingObject();
+        ExcludeObject second = new ExcludeObject();
+        serializer.write(first, buffer);
+        serializer.write(second, buffer);
+        buffer.flip();
+        assertEquals(first, serializer.read(buffer, IncludeEverythingObject.class));
+        assertEquals(second, serializer.read(buffer, ExcludeObject.class));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void byteBufferOverflowDoesNotAdvanceTest() {
+        var serializer = new ObjectSerializer();
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        try {
+            serializer.write(new IncludeEverythingObject(), buffer);
+            fail("Expected BufferOverflowException");
+        } catch (BufferOverflowException e) {
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    public void channelRoundTripTest() throws IOException {
+        var serializer = new ObjectSerializer();
+        Path file = Files.createTempFile("jserial", ".bin");
+        try {
+            IncludeEverythingObject source = new IncludeEverythingObject();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                serializer.write(source, channel);
+            }
+            assertArrayEquals(serializer.write(source), Files.readAllBytes(file));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                assertEquals(source, serializer.read(channel, IncludeEverythingObject.class));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
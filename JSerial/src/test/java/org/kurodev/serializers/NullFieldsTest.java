@@ -0,0 +1,94 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+import org.kurodev.serializers.testinstances.IntegerObject;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NullFieldsTest {
+    private final ObjectSerializer nullable = ObjectSerializer.builder().nullFields(true).build();
+
+    @Test
+    public void absentFieldsRoundTripTest() {
+        for (var serializer : new ObjectSerializer[]{nullable,
+                ObjectSerializer.builder().nullFields(true).mode(ObjectSerializer.Mode.GENERATED).build()}) {
+            Sparse sparse = new Sparse();
+            sparse.number = 7;
+            sparse.text = "present";
+            Sparse read = serializer.read(serializer.write(sparse), Sparse.class);
+            assertEquals(7, read.number);
+            assertEquals("present", read.text);
+            assertNull(read.boxed);
+            assertNull(read.nested);
+            assertNull(read.values);
+        }
+    }
+
+    @Test
+    public void presentFieldsRoundTripTest() {
+        Sparse sparse = new Sparse();
+        sparse.boxed = 5L;
+        sparse.nested = new IntegerObject();
+        sparse.values = List.of("a", "b");
+        Sparse read = nullable.read(nullable.write(sparse), Sparse.class);
+        assertEquals(Long.valueOf(5), read.boxed);
+        assertArrayEquals(nullable.write(sparse.nested), nullable.write(read.nested));
+        assertEquals(sparse.values, read.values);
+        assertNull(read.text);
+    }
+
+    @Test
+    public void absentFieldsOnlyCostTheirBitTest() {
+        //one bitmap byte for the four reference-typed fields, followed by the int
+        assertEquals(1 + 4, nullable.write(new Sparse()).length);
+    }
+
+    @Test
+    public void objectsWithoutNullableFieldsAreUnchangedTest() {
+        assertArrayEquals(new ObjectSerializer().write(new IntegerObject()), nullable.write(new IntegerObject()));
+    }
+
+    @Test
+    public void bitmapsBeyondALongTest() {
+        Wide wide = new Wide();
+        wide.f00 = "first";
+        wide.f63 = "63rd";
+        wide.f64 = "last";
+        byte[] bytes = nullable.write(wide);
+        //65 fields need 9 bitmap bytes, each present string is its length and its characters
+        assertEquals(9 + 3 * Integer.BYTES + 5 + 4 + 4, bytes.length);
+        Wide read = nullable.read(bytes, Wide.class);
+        assertEquals("first", read.f00);
+        assertEquals("63rd", read.f63);
+        assertEquals("last", read.f64);
+        assertNull(read.f01);
+        assertNull(read.f62);
+    }
+
+    @Test
+    public void nullFieldsFailWhenDisabledTest() {
+        try {
+            new ObjectSerializer().write(new Sparse());
+            fail("null string was written");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("nullFields"));
+        }
+    }
+
+    static class Sparse {
+        int number;
+        Long boxed;
+        IntegerObject nested;
+        String text;
+        List<String> values;
+    }
+
+    static class Wide {
+        String f00, f01, f02, f03, f04, f05, f06, f07, f08, f09, f10, f11, f12, f13, f14, f15,
+                f16, f17, f18, f19, f20, f21, f22, f23, f24, f25, f26, f27, f28, f29, f30, f31,
+                f32, f33, f34, f35, f36, f37, f38, f39, f40, f41, f42, f43, f44, f45, f46, f47,
+                f48, f49, f50, f51, f52, f53, f54, f55, f56, f57, f58, f59, f60, f61, f62, f63, f64;
+    }
+}
@@ -0,0 +1,239 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ObjectPipelineTest {
+    private static Event event(int id) {
+        Event event = new Event();
+        event.id = id;
+        event.source = "sensor-" + (id % 10);
+        event.payload = "x".repeat(id % 100);
+        return event;
+    }
+
+    private static List<Event> events(int count) {
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(event(i));
+        }
+        return events;
+    }
+
+    private static List<Event> readAll(ObjectSerializer serializer, byte[] bytes) throws IOException {
+        try (var reader = new ObjectReader(serializer, new ByteArrayInputStream(bytes))) {
+            return reader.stream(Event.class).toList();
+        }
+    }
+
+    private static void writeFile(ObjectSerializer serializer, Path file, List<Event> events) throws Exception {
+        var channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE);
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        try (var pipeline = new ObjectPipeline(serializer, channel, 0, ForkJoinPool.commonPool(), 16)) {
+            for (Event event : events) {
+                written.add(pipeline.submit(event));
+            }
+        }
+        for (CompletableFuture<Void> future : written) {
+            assertTrue(future.isDone() && !future.isCompletedExceptionally());
+        }
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    public void fileTest() throws Exception {
+        ObjectSerializer serializer = new ObjectSerializer();
+        Path file = Files.createTempFile("pipeline", ".bin");
+        try {
+            List<Event> events = events(5_000);
+            writeFile(serializer, file, events);
+            //frames are written in the order they were submitted, although they are serialized concurrently
+            assertEquals(events, readAll(serializer, Files.readAllBytes(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void schemaEvolutionFileTest() throws Exception {
+        ObjectSerializer serializer = ObjectSerializer.builder().schemaEvolution(true).stringTable(true).build();
+        Path file = Files.createTempFile("pipeline", ".bin");
+        try {
+            List<Event> events = events(1_000);
+            writeFile(serializer, file, events);
+            assertEquals(events, readAll(serializer, Files.readAllBytes(file)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void loopbackSocketTest() throws Exception {
+        ObjectSerializer serializer = ObjectSerializer.builder().compact(true).build();
+        List<Event> events = events(2_000);
+        try (var server = AsynchronousServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            var accepted = server.accept();
+            var client = AsynchronousSocketChannel.open();
+            client.connect(server.getLocalAddress()).get(10, TimeUnit.SECONDS);
+            var socket = accepted.get(10, TimeUnit.SECONDS);
+            var received = CompletableFuture.supplyAsync(() -> {
+                try (var reader = new ObjectReader(serializer, Channels.newInputStream(socket))) {
+                    return reader.stream(Event.class).toList();
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            ExecutorService workers = Executors.newFixedThreadPool(4);
+            try (var pipeline = new ObjectPipeline(serializer, client, workers, 64)) {
+                for (Event event : events) {
+                    pipeline.submit(event);
+                }
+                pipeline.shutdown().get(10, TimeUnit.SECONDS);
+                assertEquals(events.size(), pipeline.getCount());
+            } finally {
+                workers.shutdown();
+            }
+            //closing the pipeline closed the client, so the reader sees the end of the stream
+            assertEquals(events, received.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void subscriberBackpressureTest() throws Exception {
+        ObjectSerializer serializer = new ObjectSerializer();
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        var pipeline = new ObjectPipeline(serializer, subscriber, ForkJoinPool.commonPool(), 8);
+        List<Event> events = new ArrayList<>();
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        //nothing was requested, so the pipeline fills up and refuses further objects
+        for (int i = 0; ; i++) {
+            CompletableFuture<Void> future = pipeline.offer(event(i));
+            if (future == null) {
+                break;
+            }
+            events.add(event(i));
+            written.add(future);
+        }
+        assertEquals(8, events.size());
+        assertTrue(written.stream().noneMatch(CompletableFuture::isDone));
+        subscriber.subscription.request(Long.MAX_VALUE);
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        assertNotNull(pipeline.offer(event(8)));
+        events.add(event(8));
+        pipeline.shutdown().get(10, TimeUnit.SECONDS);
+        assertTrue(subscriber.completed.get(10, TimeUnit.SECONDS));
+        assertEquals(events, readAll(serializer, subscriber.bytes.toByteArray()));
+    }
+
+    @Test
+    public void serializationFailureTest() throws Exception {
+        ObjectSerializer serializer = new ObjectSerializer();
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        var pipeline = new ObjectPipeline(serializer, subscriber, ForkJoinPool.commonPool(), 4);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        //null fields are not allowed by default
+        CompletableFuture<Void> failed = pipeline.submit(new Event());
+        CompletableFuture<Void> written = pipeline.submit(event(1));
+        pipeline.shutdown().get(10, TimeUnit.SECONDS);
+        assertTrue(failed.isCompletedExceptionally());
+        assertTrue(written.isDone() && !written.isCompletedExceptionally());
+        assertEquals(1, pipeline.getCount());
+        assertEquals(List.of(event(1)), readAll(serializer, subscriber.bytes.toByteArray()));
+    }
+
+    @Test
+    public void failedWritesAreNotCountedTest() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        var pipeline = new ObjectPipeline(new ObjectSerializer(), subscriber, ForkJoinPool.commonPool(), 4);
+        subscriber.subscription.cancel();
+        CompletableFuture<Void> written = pipeline.submit(event(1));
+        try {
+            //completes once the failed batch has been accounted for
+            pipeline.shutdown().get(10, TimeUnit.SECONDS);
+            fail("object was written to a cancelled subscription");
+        } catch (ExecutionException | CancellationException expected) {
+            //expected
+        }
+        assertTrue(written.isCompletedExceptionally());
+        assertEquals(0, pipeline.getCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void submitAfterShutdownTest() throws Exception {
+        var pipeline = new ObjectPipeline(new ObjectSerializer(), new CollectingSubscriber(), ForkJoinPool.commonPool(), 4);
+        pipeline.shutdown();
+        pipeline.submit(event(0));
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<ByteBuffer> {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final CompletableFuture<Boolean> completed = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public synchronized void onNext(ByteBuffer item) {
+            bytes.write(item.array(), item.arrayOffset() + item.position(), item.remaining());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.complete(true);
+        }
+    }
+
+    private static class Event {
+        int id;
+        String source;
+        String payload;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Event event = (Event) o;
+            return id == event.id && source.equals(event.source) && payload.equals(event.payload);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, source, payload);
+        }
+    }
+}
@@ -102,4 +102,22 @@ public class ObjectSerializerTest {
         serializer.write(new LegalRecursiveObject());
     }
 
+    @Test
+    public void preparedPlansAreCachedTest() {
+        serializer.prepare(IntegerObject.class, StringObject.class);
+        Assert.assertEquals(2, serializer.getCachedPlanCount());
+        serializer.write(new IntegerObject());
+        Assert.assertEquals(2, serializer.getCachedPlanCount());
+        serializer.write(new InstanceWithObjects());
+        Assert.assertEquals(3, serializer.getCachedPlanCount());
+    }
+
+    @Test
+    public void planExcludesAnnotatedFieldsTest() {
+        ClassPlan plan = serializer.getPlan(ExcludeObject.class);
+        Assert.assertEquals(10, plan.getFields().size());
+        Assert.assertTrue(plan.getFields().stream().noneMatch(field -> field.getName().equals("excluded")));
+        Assert.assertSame(plan, serializer.getPlan(ExcludeObject.class));
+    }
+
 }
\ No newline at end of file
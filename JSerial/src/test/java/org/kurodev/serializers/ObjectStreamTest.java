@@ -0,0 +1,73 @@
+package org.kurodev.serializers;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kurodev.serializers.testinstances.IncludeEverythingObject;
+import org.kurodev.serializers.testinstances.InstanceWithObjects;
+import org.kurodev.serializers.testinstances.StringObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.*;
+
+public class ObjectStreamTest {
+    private final ObjectSerializer serializer = new ObjectSerializer();
+
+    @Test
+    public void manyObjectsRoundTripTest() throws IOException {
+        var out = new ByteArrayOutputStream();
+        IncludeEverythingObject source = new IncludeEverythingObject();
+        try (var writer = new ObjectWriter(serializer, out)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.write(source);
+            }
+            assertEquals(1000, writer.getCount());
+        }
+        try (var reader = new ObjectReader(serializer, new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(1000, reader.stream(IncludeEverythingObject.class).filter(source::equals).count());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void framesArePrefixedWithTheirLengthTest() throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ObjectWriter(serializer, out)) {
+            writer.write(new InstanceWithObjects());
+        }
+        byte[] expected = {0x0, 0x0, 0x0, 0x8, (byte) 0xaa, (byte) 0xbb, (byte) 0xcc, (byte) 0xdd, 0x0, 0x0, 0x0, (byte) 0xff};
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    public void mixedTypesAndSkipTest() throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ObjectWriter(serializer, Channels.newChannel(out))) {
+            writer.write(new StringObject());
+            writer.write(new InstanceWithObjects());
+            writer.write(new IncludeEverythingObject());
+        }
+        try (var reader = new ObjectReader(serializer, Channels.newChannel(new ByteArrayInputStream(out.toByteArray())))) {
+            Assert.assertNotNull(reader.read(StringObject.class));
+            reader.skip();
+            assertEquals(new IncludeEverythingObject(), reader.read(IncludeEverythingObject.class));
+            assertEquals(3, reader.getCount());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void nestedReadsDoNotCloseTheStreamTest() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new DataWriter(out);
+        serializer.write(new InstanceWithObjects(), writer, 0);
+        serializer.write(new InstanceWithObjects(), writer, 0);
+        var reader = new DataReader(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertNotNull(serializer.read(reader, InstanceWithObjects.class, 0));
+        Assert.assertNotNull(serializer.read(reader, InstanceWithObjects.class, 0));
+        assertFalse(reader.hasRemaining());
+    }
+}
@@ -0,0 +1,167 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+import org.kurodev.DataType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ObjectViewTest {
+    private static final ObjectSerializer[] SERIALIZERS = {
+            new ObjectSerializer(),
+            ObjectSerializer.builder().compact(true).build(),
+            ObjectSerializer.builder().mode(ObjectSerializer.Mode.GENERATED).build(),
+            ObjectSerializer.builder().nullFields(true).build(),
+            ObjectSerializer.builder().schemaEvolution(true).compact(true).build()
+    };
+
+    private static Order order() {
+        Order order = new Order();
+        order.address = new Address();
+        order.address.street = "Main Street";
+        order.address.zip = 12345;
+        order.amounts = new long[]{5, 10, 15};
+        order.boxed = new Integer[]{1, null, 3};
+        order.customer = "ACME";
+        order.lines = Map.of("first", List.of(1, 2), "second", List.of(3));
+        order.priority = 3;
+        order.routingKey = "eu-west";
+        order.tags = List.of("urgent", "fragile");
+        order.total = 99.5;
+        return order;
+    }
+
+    @Test
+    public void decodesOnlyTheRequestedFieldTest() throws IOException {
+        for (ObjectSerializer serializer : SERIALIZERS) {
+            ObjectView view = serializer.view(serializer.write(order()), Order.class);
+            assertEquals("eu-west", view.get("routingKey"));
+            //fields are written by name, everything up to the routing key was skipped but nothing after it
+            assertEquals(7, view.getScannedFieldCount());
+            assertEquals(3, (int) view.get("priority", Integer.class));
+            assertEquals(7, view.getScannedFieldCount());
+            assertEquals(99.5, view.get("total", Double.class), 0);
+            assertEquals(9, view.getScannedFieldCount());
+        }
+    }
+
+    @Test
+    public void everyFieldMatchesTheObjectTest() throws IOException {
+        Order order = order();
+        for (ObjectSerializer serializer : SERIALIZERS) {
+            ObjectView view = serializer.view(serializer.write(order), Order.class);
+            assertEquals(order.tags, view.get("tags"));
+            assertEquals(order.customer, view.get("customer"));
+            assertEquals(order.lines, view.get("lines"));
+            assertArrayEquals(order.amounts, view.get("amounts", long[].class));
+            assertArrayEquals(order.boxed, view.get("boxed", Integer[].class));
+            Address address = view.get("address", Address.class);
+            assertEquals(order.address.street, address.street);
+            assertEquals(order.address.zip, address.zip);
+        }
+    }
+
+    @Test
+    public void absentFieldsAreNullTest() throws IOException {
+        ObjectSerializer serializer = ObjectSerializer.builder().nullFields(true).build();
+        Order order = order();
+        order.address = null;
+        order.customer = null;
+        ObjectView view = serializer.view(serializer.write(order), Order.class);
+        assertNull(view.get("customer"));
+        assertEquals("eu-west", view.get("routingKey"));
+        assertNull(view.get("address"));
+    }
+
+    @Test
+    public void viewOfBufferTest() throws IOException {
+        ObjectSerializer serializer = new ObjectSerializer();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+        buffer.put((byte) 1);
+        serializer.write(order(), buffer);
+        buffer.flip().position(1);
+        ObjectView view = serializer.view(buffer, Order.class);
+        assertEquals("ACME", view.get("customer"));
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void unknownFieldTest() {
+        ObjectSerializer serializer = new ObjectSerializer();
+        ObjectView view = serializer.view(serializer.write(order()), Order.class);
+        assertTrue(view.has("total"));
+        assertFalse(view.has("missing"));
+        try {
+            view.get("missing");
+            fail("missing field was read");
+        } catch (IllegalArgumentException | IOException expected) {
+            //expected
+        }
+    }
+
+    @Test
+    public void hiddenFieldTest() throws IOException {
+        Shipment shipment = new Shipment();
+        shipment.priority = 7;
+        ((Order) shipment).priority = 3;
+        ObjectSerializer serializer = ObjectSerializer.builder().nullFields(true).build();
+        ObjectView view = serializer.view(serializer.write(shipment), Shipment.class);
+        //the name refers to the field of the class itself, like it does in java
+        assertEquals(7, (int) view.get("priority", Integer.class));
+    }
+
+    @Test
+    public void customTypesAreSkippedWithoutDecodingTest() throws IOException {
+        ObjectSerializer serializer = ObjectSerializer.builder()
+                .typeSerializer(TypeSerializer.of(Money.class, (value, writer) -> writer.write(value.cents), reader -> {
+                    throw new AssertionError("skipped value was decoded");
+                }, reader -> reader.skip(DataType.LONG)))
+                .build();
+        Invoice invoice = new Invoice();
+        invoice.amount = new Money();
+        invoice.amount.cents = 1250;
+        invoice.number = 42;
+        ObjectView view = serializer.view(serializer.write(invoice), Invoice.class);
+        assertEquals(42, (int) view.get("number", Integer.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void referenceTrackingIsNotSupportedTest() {
+        ObjectSerializer serializer = ObjectSerializer.builder().referenceTracking(true).build();
+        serializer.view(serializer.write(order()), Order.class);
+    }
+
+    private static class Order {
+        Address address;
+        long[] amounts;
+        Integer[] boxed;
+        String customer;
+        Map<String, List<Integer>> lines;
+        int priority;
+        String routingKey;
+        List<String> tags;
+        double total;
+    }
+
+    private static class Shipment extends Order {
+        int priority;
+    }
+
+    private static class Invoice {
+        Money amount;
+        int number;
+    }
+
+    private static class Money {
+        long cents;
+    }
+
+    private static class Address {
+        String street;
+        int zip;
+    }
+}
@@ -0,0 +1,100 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RecordAndInheritanceTest {
+    private static final ObjectSerializer[] SERIALIZERS = {new ObjectSerializer(),
+            ObjectSerializer.builder().mode(ObjectSerializer.Mode.GENERATED).build(),
+            ObjectSerializer.builder().compact(true).nullFields(true).build(),
+            ObjectSerializer.builder().schemaEvolution(true).referenceTracking(true).build()};
+
+    @Test
+    public void inheritedFieldsRoundTripTest() {
+        for (ObjectSerializer serializer : SERIALIZERS) {
+            Child child = new Child();
+            child.setHidden(11);
+            child.value = 12;
+            ((Parent) child).value = 13;
+            child.name = "child";
+            Child read = serializer.read(serializer.write(child), Child.class);
+            assertEquals(11, read.getHidden());
+            assertEquals(12, read.value);
+            assertEquals(13, ((Parent) read).value);
+            assertEquals("child", read.name);
+        }
+    }
+
+    @Test
+    public void superclassFieldsComeFirstTest() {
+        List<String> names = new ObjectSerializer().getPlan(Child.class).getFields().stream().map(FieldPlan::getName).toList();
+        assertEquals(List.of("hidden", "value", "name", "value"), names);
+    }
+
+    @Test
+    public void recordsRoundTripTest() {
+        for (ObjectSerializer serializer : SERIALIZERS) {
+            Line line = new Line(new Point(1, 2), new Point(3, 4), "line", Map.of("k", List.of(5)));
+            assertEquals(line, serializer.read(serializer.write(line), Line.class));
+        }
+    }
+
+    @Test
+    public void recordsAreWrittenLikeClassesTest() {
+        var serializer = new ObjectSerializer();
+        MutablePoint mutable = new MutablePoint();
+        mutable.x = 1;
+        mutable.y = 2;
+        assertArrayEquals(serializer.write(mutable), serializer.write(new Point(1, 2)));
+        assertEquals(new Point(1, 2), serializer.read(serializer.write(mutable), Point.class));
+    }
+
+    @Test
+    public void addedRecordComponentsTest() {
+        var serializer = ObjectSerializer.builder().schemaEvolution(true).build();
+        Point3 read = serializer.read(serializer.write(new Point(1, 2)), Point3.class);
+        assertEquals(new Point3(1, 2, 0, null), read);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void recordComponentsCanNotBeSetTest() {
+        FieldPlan x = new ObjectSerializer().getPlan(Point.class).getFields().get(0);
+        x.getAccessor().setInt(new Point(1, 2), 3);
+    }
+
+    static class Parent {
+        private int hidden;
+        int value;
+
+        int getHidden() {
+            return hidden;
+        }
+
+        void setHidden(int hidden) {
+            this.hidden = hidden;
+        }
+    }
+
+    static class Child extends Parent {
+        String name;
+        int value;
+    }
+
+    record Point(int x, int y) {
+    }
+
+    record Point3(int x, int y, int z, String label) {
+    }
+
+    record Line(Point from, Point to, String name, Map<String, List<Integer>> tags) {
+    }
+
+    static class MutablePoint {
+        int x;
+        int y;
+    }
+}
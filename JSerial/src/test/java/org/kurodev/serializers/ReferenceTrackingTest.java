@@ -0,0 +1,128 @@
+package org.kurodev.serializers;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kurodev.serializers.exception.RecursiveDebthException;
+import org.kurodev.serializers.testinstances.IncludeEverythingObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReferenceTrackingTest {
+    private final ObjectSerializer tracking = ObjectSerializer.builder().referenceTracking(true).build();
+
+    private static Node ring() {
+        Node a = new Node("a");
+        Node b = new Node("b");
+        Node c = new Node("c");
+        a.next = b;
+        b.next = c;
+        c.next = a;
+        return a;
+    }
+
+    @Test
+    public void cyclesRoundTripTest() {
+        for (var serializer : new ObjectSerializer[]{tracking,
+                ObjectSerializer.builder().referenceTracking(true).mode(ObjectSerializer.Mode.GENERATED).build()}) {
+            Node read = serializer.read(serializer.write(ring()), Node.class);
+            assertEquals("a", read.name);
+            assertEquals("b", read.next.name);
+            assertEquals("c", read.next.next.name);
+            assertSame(read, read.next.next.next);
+        }
+    }
+
+    @Test(expected = RecursiveDebthException.class)
+    public void cyclesFailWithoutTrackingTest() {
+        new ObjectSerializer().write(ring());
+    }
+
+    @Test
+    public void sharedObjectsAreWrittenOnceTest() {
+        Pair pair = new Pair();
+        pair.left = new IncludeEverythingObject();
+        pair.right = pair.left;
+        byte[] tracked = tracking.write(pair);
+        byte[] untracked = new ObjectSerializer().write(pair);
+        //the second occurrence is a single byte instead of a copy, each occurrence carries a one byte tag
+        assertEquals(untracked.length / 2 + 2, tracked.length);
+        Pair read = tracking.read(tracked, Pair.class);
+        assertEquals(pair.left, read.left);
+        assertSame(read.left, read.right);
+    }
+
+    @Test
+    public void sharedElementsTest() {
+        Node shared = new Node("shared");
+        shared.next = shared;
+        Holder holder = new Holder();
+        holder.nodes = List.of(shared, shared, new Node("other", shared));
+        Holder read = tracking.read(tracking.write(holder), Holder.class);
+        assertSame(read.nodes.get(0), read.nodes.get(1));
+        assertSame(read.nodes.get(0), read.nodes.get(2).next);
+        assertSame(read.nodes.get(0), read.nodes.get(0).next);
+    }
+
+    @Test
+    public void eachFrameIsItsOwnGraphTest() throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ObjectWriter(tracking, out)) {
+            writer.write(ring());
+            writer.write(ring());
+        }
+        try (var reader = new ObjectReader(tracking, new ByteArrayInputStream(out.toByteArray()))) {
+            Node first = reader.read(Node.class);
+            Node second = reader.read(Node.class);
+            assertNotSame(first, second);
+            assertSame(second, second.next.next.next);
+        }
+    }
+
+    @Test
+    public void identityIntMapTest() {
+        var map = new IdentityIntMap();
+        Object[] keys = new Object[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Object();
+            assertEquals(-1, map.putIfAbsent(keys[i], i));
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, map.putIfAbsent(keys[i], -5));
+        }
+        assertEquals(keys.length, map.size());
+        //equal but distinct objects are different keys
+        assertEquals(-1, map.putIfAbsent(new String("key"), 1));
+        assertEquals(-1, map.putIfAbsent(new String("key"), 2));
+        map.clear();
+        assertEquals(0, map.size());
+        Assert.assertEquals(-1, map.putIfAbsent(keys[0], 3));
+    }
+
+    public static class Node {
+        String name;
+        Node next;
+
+        public Node(String name) {
+            this.name = name;
+        }
+
+        public Node(String name, Node next) {
+            this.name = name;
+            this.next = next;
+        }
+    }
+
+    public static class Pair {
+        IncludeEverythingObject left;
+        IncludeEverythingObject right;
+    }
+
+    public static class Holder {
+        List<Node> nodes;
+    }
+}
@@ -0,0 +1,184 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+import org.kurodev.serializers.testinstances.IncludeEverythingObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class SchemaEvolutionTest {
+    private final ObjectSerializer serializer = ObjectSerializer.builder().schemaEvolution(true).build();
+
+    private static PersonV1 person() {
+        PersonV1 person = new PersonV1();
+        person.name = "Ada";
+        person.age = 36;
+        person.address = new Address();
+        person.address.city = "London";
+        person.friend = new Address();
+        person.friend.city = "Paris";
+        person.nicknames = List.of("Countess");
+        person.scores = Map.of("math", new int[]{1, 2});
+        person.id = UUID.randomUUID();
+        return person;
+    }
+
+    @Test
+    public void sameClassRoundTripTest() {
+        IncludeEverythingObject source = new IncludeEverythingObject();
+        assertEquals(source, serializer.read(serializer.write(source), IncludeEverythingObject.class));
+    }
+
+    @Test
+    public void addedAndRemovedFieldsTest() {
+        PersonV1 person = person();
+        PersonV2 read = serializer.read(serializer.write(person), PersonV2.class);
+        assertEquals("Ada", read.name);
+        assertEquals(Integer.valueOf(36), read.age);
+        assertEquals(person.id, read.id);
+        assertEquals("Paris", read.friend.city);
+        assertEquals(0L, read.added);
+        assertNull(read.email);
+    }
+
+    @Test
+    public void removedFieldsWithReferencesTest() {
+        var tracking = ObjectSerializer.builder().schemaEvolution(true).referenceTracking(true).build();
+        PersonV1 person = person();
+        person.friend = person.address;
+        PersonV2 read = tracking.read(tracking.write(person), PersonV2.class);
+        assertEquals("Ada", read.name);
+        //the address was skipped, so later references to it read as null
+        assertNull(read.friend);
+    }
+
+    @Test
+    public void removedFieldsWithNullFieldsTest() {
+        var nullable = ObjectSerializer.builder().schemaEvolution(true).nullFields(true).build();
+        PersonV1 person = person();
+        person.name = null;
+        person.nicknames = null;
+        PersonV2 read = nullable.read(nullable.write(person), PersonV2.class);
+        assertNull(read.name);
+        assertEquals(Integer.valueOf(36), read.age);
+        assertEquals(person.id, read.id);
+    }
+
+    @Test
+    public void changedTypesAreTreatedAsRemovedTest() {
+        Renamed renamed = new Renamed();
+        renamed.age = 7;
+        PersonV2 read = serializer.read(serializer.write(renamed), PersonV2.class);
+        assertNull(read.age);
+        assertNull(read.name);
+    }
+
+    @Test
+    public void hiddenFieldsTest() {
+        Derived derived = new Derived();
+        derived.shared = 1;
+        ((Base) derived).shared = 2;
+        derived.label = "base";
+        DerivedV2 read = serializer.read(serializer.write(derived), DerivedV2.class);
+        //each field of the same name is read into its own counterpart rather than both into the last one
+        assertEquals(1, read.shared);
+        assertEquals(2, ((Base) read).shared);
+        assertEquals("base", read.label);
+        assertNull(read.extra);
+    }
+
+    @Test
+    public void schemasAreWrittenOncePerStreamTest() throws IOException {
+        var single = new ByteArrayOutputStream();
+        try (var writer = new ObjectWriter(serializer, single)) {
+            writer.write(person());
+        }
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ObjectWriter(serializer, out)) {
+            for (int i = 0; i < 4; i++) {
+                writer.write(person());
+            }
+        }
+        int later = (out.size() - single.size()) / 3;
+        assertTrue("later frames repeated the schemas: " + single.size() + " vs " + later, later < single.size() / 2);
+        try (var reader = new ObjectReader(serializer, new ByteArrayInputStream(out.toByteArray()))) {
+            reader.skip();
+            //the schemas of the stream were introduced by the skipped frame
+            assertEquals("Ada", reader.read(PersonV2.class).name);
+            assertEquals("Ada", reader.read(PersonV2.class).name);
+            assertEquals(36, (int) reader.read(PersonV2.class).age);
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void resolutionsAreCachedTest() {
+        Schema schema = serializer.getPlan(PersonV1.class).getSchema();
+        ClassPlan plan = serializer.getPlan(PersonV2.class);
+        assertSame(schema.resolve(plan), schema.resolve(plan));
+        assertSame(plan.fields(), plan.getSchema().resolve(plan));
+    }
+
+    @Test
+    public void schemasAreInternedPerSerializerTest() throws IOException {
+        Schema schema = serializer.getPlan(PersonV1.class).getSchema();
+        DataWriter writer = new DataWriter();
+        schema.write(writer);
+        byte[] bytes = writer.toByteArray();
+        ClassPlanCache plans = new ClassPlanCache(FieldPolicy.DEFAULT);
+        Schema first = plans.intern(Schema.read(new DataReader(bytes)));
+        assertEquals(schema, first);
+        assertSame(first, plans.intern(Schema.read(new DataReader(bytes))));
+        //another serializer does not share the instance, nor the classes it was resolved for
+        assertNotSame(first, new ClassPlanCache(FieldPolicy.DEFAULT).intern(Schema.read(new DataReader(bytes))));
+        //a schema equal to that of a class maps onto its fields as they are
+        assertSame(serializer.getPlan(PersonV1.class).fields(), first.resolve(serializer.getPlan(PersonV1.class)));
+    }
+
+    static class Address {
+        String city;
+    }
+
+    static class PersonV1 {
+        String name;
+        int age;
+        Address address;
+        Address friend;
+        List<String> nicknames;
+        Map<String, int[]> scores;
+        UUID id;
+    }
+
+    static class PersonV2 {
+        long added;
+        Integer age;
+        String email;
+        Address friend;
+        UUID id;
+        String name;
+    }
+
+    static class Base {
+        String label;
+        int shared;
+    }
+
+    static class Derived extends Base {
+        int shared;
+    }
+
+    static class DerivedV2 extends Base {
+        String extra;
+        int shared;
+    }
+
+    static class Renamed {
+        long age;
+    }
+}
@@ -0,0 +1,75 @@
+package org.kurodev.serializers;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kurodev.serializers.testinstances.*;
+import org.kurodev.serializers.testinstances.recursion.LegalRecursiveObject;
+import org.kurodev.serializers.testinstances.recursion.RecursiveObject;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+public class SerializerGeneratorTest {
+    private final ObjectSerializer reflective = new ObjectSerializer();
+    private final ObjectSerializer generated = ObjectSerializer.builder().mode(ObjectSerializer.Mode.GENERATED).build();
+
+    @Test
+    public void serializerIsGeneratedTest() {
+        ClassSerializer<IncludeEverythingObject> serializer = new SerializerGenerator().get(reflective.getPlan(IncludeEverythingObject.class));
+        Assert.assertNotNull(serializer);
+        Assert.assertTrue(serializer.getClass().isHidden());
+        assertEquals(IncludeEverythingObject.class, serializer.getType());
+    }
+
+    @Test
+    public void generatedOutputIsIdenticalTest() {
+        Object[] instances = {new IncludeEverythingObject(), new ExcludeObject(), new InstanceWithObjects(),
+                new StringObject(), new CharObject(), new ByteObject(), new ShortObject(), new LegalRecursiveObject(),
+                new RecursiveObject(), new ArrayObject()};
+        for (Object instance : instances) {
+            assertArrayEquals(instance.getClass().getName(), reflective.write(instance), generated.write(instance));
+        }
+    }
+
+    @Test
+    public void generatedRoundTripTest() {
+        IncludeEverythingObject source = new IncludeEverythingObject();
+        assertEquals(source, generated.read(generated.write(source), IncludeEverythingObject.class));
+        ExcludeObject excluded = new ExcludeObject();
+        assertEquals(excluded, generated.read(generated.write(excluded), ExcludeObject.class));
+    }
+
+    @Test
+    public void nestedObjectsAreDelegatedTest() {
+        byte[] written = generated.write(new InstanceWithObjects());
+        byte[] expected = new byte[]{(byte) 0xaa, (byte) 0xbb, (byte) 0xcc, (byte) 0xdd, 0x0, 0x0, 0x0, (byte) 0xff};
+        assertArrayEquals(expected, written);
+        assertArrayEquals(expected, generated.write(generated.read(written, InstanceWithObjects.class)));
+    }
+
+    @Test
+    public void nullStringReportsNullFieldsTest() {
+        Named source = new Named();
+        Assert.assertNotNull(new SerializerGenerator().get(reflective.getPlan(Named.class)));
+        String expected = null;
+        try {
+            reflective.write(source);
+        } catch (IllegalArgumentException e) {
+            expected = e.getMessage();
+        }
+        try {
+            generated.write(source);
+            fail("null string was written");
+        } catch (IllegalArgumentException e) {
+            assertNotNull(expected);
+            assertEquals(expected, e.getMessage());
+        }
+    }
+
+    static class Named {
+        int id;
+        String name;
+    }
+}
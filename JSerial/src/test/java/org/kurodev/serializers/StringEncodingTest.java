@@ -0,0 +1,117 @@
+package org.kurodev.serializers;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StringEncodingTest {
+    private static final String[] STRINGS = {"", "ascii", "äöü", "€uro", "emoji😊", "\ud800 unpaired", "unpaired \udc00",
+            "x".repeat(100) + "ß", "ok".repeat(30)};
+
+    private static byte[] expected(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).array();
+    }
+
+    @Test
+    public void encodesLikeGetBytesTest() throws IOException {
+        for (String value : STRINGS) {
+            var writer = new DataWriter();
+            writer.write(value);
+            assertArrayEquals(value, expected(value), writer.toByteArray());
+            ByteBuffer direct = ByteBuffer.allocateDirect(512);
+            var directWriter = new DataWriter(direct);
+            directWriter.write(value);
+            assertArrayEquals(value, expected(value), directWriter.toByteArray());
+        }
+    }
+
+    @Test
+    public void stringsLargerThanTheBufferTest() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new DataWriter(out, 16);
+        for (String value : STRINGS) {
+            writer.write(value);
+        }
+        writer.flush();
+        var reader = new DataReader(new ByteArrayInputStream(out.toByteArray()), 16);
+        for (String value : STRINGS) {
+            //unpaired surrogates are replaced while encoding
+            assertEquals(new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), reader.readString());
+        }
+    }
+
+    @Test
+    public void repeatedStringsAreWrittenOnceTest() {
+        var table = ObjectSerializer.builder().stringTable(true).build();
+        Tags tags = new Tags();
+        tags.first = "status-ok";
+        tags.second = "status-ok";
+        tags.values = List.of("status-ok", "other", "other");
+        byte[] written = table.write(tags);
+        byte[] plain = new ObjectSerializer().write(tags);
+        //each repetition is a single byte instead of the string, each of the 5 strings carries a one byte tag
+        assertEquals(plain.length - 2 * (Integer.BYTES + "status-ok".length()) - (Integer.BYTES + "other".length()) + 5,
+                written.length);
+        Tags read = table.read(written, Tags.class);
+        assertEquals("status-ok", read.first);
+        assertSame(read.first, read.second);
+        assertEquals(tags.values, read.values);
+    }
+
+    @Test
+    public void framesDoNotShareStringsTest() throws IOException {
+        var table = ObjectSerializer.builder().stringTable(true).schemaEvolution(true).build();
+        Tags tags = new Tags();
+        tags.first = "a";
+        tags.second = "a";
+        tags.values = List.of("a");
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ObjectWriter(table, out)) {
+            writer.write(tags);
+            writer.write(tags);
+        }
+        try (var reader = new ObjectReader(table, new ByteArrayInputStream(out.toByteArray()))) {
+            reader.skip();
+            Tags read = reader.read(Tags.class);
+            assertEquals("a", read.first);
+            assertEquals(List.of("a"), read.values);
+        }
+    }
+
+    @Test
+    public void cachedStringsAreReusedTest() {
+        var cached = ObjectSerializer.builder().stringCache(16).build();
+        Tags tags = new Tags();
+        tags.first = "host-1";
+        tags.second = "x".repeat(StringCache.MAX_LENGTH + 1);
+        tags.values = List.of();
+        byte[] written = cached.write(tags);
+        Tags a = cached.read(written, Tags.class);
+        Tags b = cached.read(written, Tags.class);
+        assertEquals("host-1", a.first);
+        assertSame(a.first, b.first);
+        assertEquals(tags.second, b.second);
+        assertNotSame(a.second, b.second);
+    }
+
+    @Test
+    public void cacheSizeIsAPowerOfTwoTest() {
+        assertEquals(1, new StringCache(1).size());
+        assertEquals(16, new StringCache(16).size());
+        assertEquals(32, new StringCache(17).size());
+    }
+
+    static class Tags {
+        String first;
+        String second;
+        List<String> values;
+    }
+}
@@ -0,0 +1,108 @@
+package org.kurodev.serializers;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kurodev.serializers.testinstances.IntegerObject;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class TypeSerializerTest {
+
+    @Test
+    public void builtInsRoundTripTest() {
+        ValueHolder source = new ValueHolder();
+        for (var serializer : new ObjectSerializer[]{new ObjectSerializer(),
+                ObjectSerializer.builder().mode(ObjectSerializer.Mode.GENERATED).build(),
+                ObjectSerializer.builder().compact(true).build()}) {
+            assertEquals(source, serializer.read(serializer.write(source), ValueHolder.class));
+        }
+    }
+
+    @Test
+    public void uuidIsTwoLongsTest() {
+        var serializer = new ObjectSerializer();
+        UUID id = UUID.randomUUID();
+        byte[] written = serializer.write(id);
+        assertEquals(2 * Long.BYTES, written.length);
+        assertEquals(id, serializer.read(written, UUID.class));
+    }
+
+    @Test
+    public void registeredSerializerTakesPrecedenceTest() {
+        var serializer = ObjectSerializer.builder()
+                .typeSerializer(TypeSerializer.of(IntegerObject.class, (value, writer) -> writer.writeByte(7), reader -> {
+                    reader.readByte();
+                    return new IntegerObject();
+                }))
+                .build();
+        Assert.assertArrayEquals(new byte[]{7}, serializer.write(new IntegerObject()));
+        Assert.assertNotNull(serializer.read(new byte[]{7}, IntegerObject.class));
+    }
+
+    @Test
+    public void builtInDataTypesCanNotBeRegisteredTest() {
+        for (TypeSerializer<?> serializer : List.<TypeSerializer<?>>of(
+                TypeSerializer.of(String.class, (value, writer) -> writer.writeByte(1), reader -> ""),
+                TypeSerializer.of(Integer.class, (value, writer) -> writer.writeByte(1), reader -> 1),
+                TypeSerializer.of(List.class, (value, writer) -> writer.writeByte(1), reader -> List.of()))) {
+            try {
+                ObjectSerializer.builder().typeSerializer(serializer);
+                Assert.fail(serializer.getType() + " was registered although it would never be used");
+            } catch (IllegalArgumentException expected) {
+                //expected
+            }
+        }
+    }
+
+    @Test
+    public void registeredSerializerReplacesBuiltInTest() {
+        var serializer = ObjectSerializer.builder()
+                .typeSerializer(TypeSerializer.of(UUID.class, (value, writer) -> writer.write(value.toString()),
+                        reader -> UUID.fromString(reader.readString())))
+                .build();
+        UUID id = UUID.randomUUID();
+        assertEquals(Integer.BYTES + 36, serializer.write(id).length);
+        assertEquals(id, serializer.read(serializer.write(id), UUID.class));
+    }
+
+    public static class ValueHolder {
+        UUID id = new UUID(0x0123456789abcdefL, 0xfedcba9876543210L);
+        Instant instant = Instant.ofEpochSecond(1_700_000_000L, 123_456_789);
+        Duration duration = Duration.ofMillis(-1500);
+        LocalDate date = LocalDate.of(1999, 12, 31);
+        LocalTime time = LocalTime.of(23, 59, 59, 999);
+        LocalDateTime dateTime = LocalDateTime.of(date, time);
+        OffsetDateTime offsetDateTime = OffsetDateTime.of(dateTime, ZoneOffset.ofHours(-5));
+        //falls into the daylight saving overlap, the later of both offsets has to survive
+        ZonedDateTime zoned = ZonedDateTime.of(2023, 10, 29, 2, 30, 0, 0, ZoneId.of("Europe/Berlin")).withLaterOffsetAtOverlap();
+        Date legacy = new Date(1234567890L);
+        BigInteger big = BigInteger.TWO.pow(100).negate();
+        BigDecimal decimal = new BigDecimal("12345.678900");
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ValueHolder that = (ValueHolder) o;
+            return id.equals(that.id) && instant.equals(that.instant) && duration.equals(that.duration) &&
+                    date.equals(that.date) && time.equals(that.time) && dateTime.equals(that.dateTime) &&
+                    offsetDateTime.equals(that.offsetDateTime) && zoned.equals(that.zoned) &&
+                    legacy.equals(that.legacy) && big.equals(that.big) && decimal.equals(that.decimal) &&
+                    ids.equals(that.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, instant);
+        }
+    }
+}
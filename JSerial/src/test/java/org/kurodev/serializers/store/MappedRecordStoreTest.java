@@ -0,0 +1,110 @@
+package org.kurodev.serializers.store;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kurodev.serializers.ObjectSerializer;
+import org.kurodev.serializers.testinstances.IncludeEverythingObject;
+import org.kurodev.serializers.testinstances.StringObject;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+
+public class MappedRecordStoreTest {
+    private final ObjectSerializer serializer = new ObjectSerializer();
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("jserial-store", ".bin");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void appendAndReadTest() throws IOException {
+        IncludeEverythingObject source = new IncludeEverythingObject();
+        try (var store = MappedRecordStore.open(file, serializer)) {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, store.append(source));
+            }
+            assertEquals(100, store.size());
+            assertEquals(source, store.read(42, IncludeEverythingObject.class));
+        }
+    }
+
+    @Test
+    public void indexIsRebuiltOnOpenTest() throws IOException {
+        try (var store = MappedRecordStore.open(file, serializer)) {
+            store.append(new StringObject());
+            store.append(new IncludeEverythingObject());
+        }
+        try (var store = MappedRecordStore.open(file, serializer)) {
+            assertEquals(2, store.size());
+            assertEquals(new IncludeEverythingObject(), store.read(1, IncludeEverythingObject.class));
+            Assert.assertArrayEquals(serializer.write(new StringObject()), bytes(store, 0));
+        }
+    }
+
+    @Test
+    public void recordsCrossingSegmentsTest() throws IOException {
+        IncludeEverythingObject source = new IncludeEverythingObject();
+        //a segment is smaller than a record, so records span segments
+        try (var store = MappedRecordStore.open(file, serializer, 16)) {
+            for (int i = 0; i < 10; i++) {
+                store.append(source);
+            }
+        }
+        try (var store = MappedRecordStore.open(file, serializer, 64)) {
+            Iterator<IncludeEverythingObject> iterator = store.iterator(IncludeEverythingObject.class);
+            int read = 0;
+            while (iterator.hasNext()) {
+                assertEquals(source, iterator.next());
+                read++;
+            }
+            assertEquals(10, read);
+            assertEquals(10, store.stream(IncludeEverythingObject.class).filter(source::equals).count());
+        }
+    }
+
+    @Test
+    public void incompleteRecordIsRepairedTest() throws IOException {
+        try (var store = MappedRecordStore.open(file, serializer)) {
+            store.append(new IncludeEverythingObject());
+        }
+        long complete = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[]{0x0, 0x0, 0x0, 0x7f, 0x1}));
+        }
+        try {
+            MappedRecordStore.open(file, serializer).close();
+            Assert.fail("store with an incomplete record was opened");
+        } catch (IOException expected) {
+            //nothing is discarded without asking for it
+            assertEquals(complete + 5, Files.size(file));
+        }
+        try (var store = MappedRecordStore.open(file, serializer, MappedRecordStore.DEFAULT_SEGMENT_SIZE, true)) {
+            assertEquals(1, store.size());
+            assertEquals(complete, store.byteSize());
+            store.append(new IncludeEverythingObject());
+            assertEquals(new IncludeEverythingObject(), store.read(1, IncludeEverythingObject.class));
+        }
+    }
+
+    private static byte[] bytes(MappedRecordStore store, int index) throws IOException {
+        var record = store.record(index);
+        byte[] bytes = new byte[record.remaining()];
+        record.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,42 @@
+package org.kurodev.serializers.testinstances;
+
+import java.util.Arrays;
+
+public class ArrayObject {
+    boolean[] booleans = {true, false, true};
+    byte[] bytes = {1, 2, 3};
+    char[] chars = {'a', 'b'};
+    short[] shorts = {Short.MIN_VALUE, 0, Short.MAX_VALUE};
+    int[] ints = {1, -1, Integer.MAX_VALUE};
+    long[] longs = {Long.MIN_VALUE, 0, 42};
+    float[] floats = {1.5f, -0.25f};
+    double[] doubles = {Math.PI, Double.MAX_VALUE};
+    String[] strings = {"first", null, "third"};
+    IntegerObject[] objects = {new IntegerObject(), null};
+    int[][] matrix = {{1, 2}, null, {}};
+    double[] missing = null;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArrayObject that = (ArrayObject) o;
+        return Arrays.equals(booleans, that.booleans) &&
+                Arrays.equals(bytes, that.bytes) &&
+                Arrays.equals(chars, that.chars) &&
+                Arrays.equals(shorts, that.shorts) &&
+                Arrays.equals(ints, that.ints) &&
+                Arrays.equals(longs, that.longs) &&
+                Arrays.equals(floats, that.floats) &&
+                Arrays.equals(doubles, that.doubles) &&
+                Arrays.equals(strings, that.strings) &&
+                objects.length == that.objects.length && that.objects[1] == null &&
+                Arrays.deepEquals(matrix, that.matrix) &&
+                Arrays.equals(missing, that.missing);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ints);
+    }
+}
@@ -0,0 +1,41 @@
+package org.kurodev.serializers.testinstances;
+
+import java.util.*;
+
+public class CollectionObject {
+    List<Integer> ids = new ArrayList<>(Arrays.asList(1, null, Integer.MIN_VALUE));
+    Set<String> tags = new HashSet<>(Set.of("a", "b", "c"));
+    TreeSet<String> sorted = new TreeSet<>(Set.of("z", "y"));
+    Deque<Double> samples = new ArrayDeque<>(List.of(0.5, 1.5));
+    Map<String, List<Long>> series = new HashMap<>(Map.of("first", List.of(1L, 2L), "second", List.of()));
+    LinkedHashMap<Integer, String> names = new LinkedHashMap<>();
+    List<IncludeEverythingObject> objects = List.of(new IncludeEverythingObject());
+    Map<String, int[]> arrays = Map.of("key", new int[]{1, 2});
+    List<String> missing = null;
+
+    public CollectionObject() {
+        names.put(2, "two");
+        names.put(1, null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CollectionObject that = (CollectionObject) o;
+        return ids.equals(that.ids) &&
+                tags.equals(that.tags) &&
+                sorted.equals(that.sorted) &&
+                new ArrayList<>(samples).equals(new ArrayList<>(that.samples)) &&
+                series.equals(that.series) &&
+                new ArrayList<>(names.entrySet()).equals(new ArrayList<>(that.names.entrySet())) &&
+                objects.equals(that.objects) &&
+                Arrays.equals(arrays.get("key"), that.arrays.get("key")) &&
+                Objects.equals(missing, that.missing);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ids, tags);
+    }
+}